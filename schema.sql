@@ -38,6 +38,20 @@ CREATE TABLE IF NOT EXISTS assignments (
     INDEX idx_title (title)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Incremental refresh reads rows by updated_at. These are created apart from the tables so
+-- that running this file again adds them to tables made by an earlier version.
+CREATE INDEX IF NOT EXISTS idx_courses_updated_at ON courses (updated_at);
+CREATE INDEX IF NOT EXISTS idx_assignments_updated_at ON assignments (updated_at);
+
+-- Tombstones for deleted rows, so clients can refresh by reading only what changed
+CREATE TABLE IF NOT EXISTS deleted_rows (
+    table_name VARCHAR(50) NOT NULL,
+    row_id VARCHAR(50) NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (table_name, row_id),
+    INDEX idx_deleted_at (deleted_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Optional: Create a view for assignments with course information
 CREATE OR REPLACE VIEW assignment_details AS
 SELECT
@@ -0,0 +1,55 @@
+package com.jscheduler.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SemesterBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int assignmentCount;
+
+    private Semester semester;
+    private String[] courseIds;
+    private String[] assignmentIds;
+    // Equal to the ids but separate instances, as ids read from a file or the database are
+    private String[] readAssignmentIds;
+
+    @Setup
+    public void setUp() {
+        semester = SemesterFixtures.create(assignmentCount);
+        courseIds = semester.getCourses().stream().map(Course::getId).toArray(String[]::new);
+        assignmentIds = semester.getAssignments().stream().map(Assignment::getId).toArray(String[]::new);
+        readAssignmentIds = Arrays.stream(assignmentIds).map(String::new).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Course findCourseById() {
+        String id = courseIds[ThreadLocalRandom.current().nextInt(courseIds.length)];
+        return semester.findCourseById(id);
+    }
+
+    @Benchmark
+    public Assignment findAssignmentById() {
+        String id = assignmentIds[ThreadLocalRandom.current().nextInt(assignmentIds.length)];
+        return semester.findAssignmentById(id);
+    }
+
+    @Benchmark
+    public Assignment findAssignmentByReadId() {
+        String id = readAssignmentIds[ThreadLocalRandom.current().nextInt(readAssignmentIds.length)];
+        return semester.findAssignmentById(id);
+    }
+}
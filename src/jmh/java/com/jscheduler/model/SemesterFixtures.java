@@ -0,0 +1,62 @@
+package com.jscheduler.model;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Deterministic semester generator shared by the benchmarks.
+ */
+public final class SemesterFixtures {
+    private static final LocalDate START = LocalDate.of(2026, 8, 24);
+    private static final AssignmentStatus[] STATUSES = AssignmentStatus.values();
+
+    private SemesterFixtures() {
+    }
+
+    /**
+     * Number of courses generated for a semester of the given size, roughly one
+     * course per hundred assignments as in an imported department catalog.
+     */
+    public static int courseCount(int assignmentCount) {
+        return Math.max(5, assignmentCount / 100);
+    }
+
+    public static Semester create(int assignmentCount) {
+        Random random = new Random(42);
+        Semester semester = new Semester("Fall 2026");
+
+        int courseCount = courseCount(assignmentCount);
+        for (int i = 0; i < courseCount; i++) {
+            semester.addCourse(new Course(
+                    courseId(i),
+                    "Course " + i,
+                    "Generated course " + i,
+                    "Professor " + (i % 40),
+                    "Fall 2026"
+            ));
+        }
+
+        for (int i = 0; i < assignmentCount; i++) {
+            LocalDate due = START.plusDays(random.nextInt(120));
+            semester.addAssignment(new Assignment(
+                    assignmentId(i),
+                    courseId(i % courseCount),
+                    "Assignment " + i,
+                    "Read chapter " + (i % 30) + " and answer the review questions.",
+                    due,
+                    random.nextBoolean() ? due.plusDays(2) : null,
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    random.nextInt(4) == 0 ? "Bring calculator" : ""
+            ));
+        }
+        return semester;
+    }
+
+    public static String courseId(int index) {
+        return "c_" + String.format("%08x", index);
+    }
+
+    public static String assignmentId(int index) {
+        return "a_" + String.format("%08x", index);
+    }
+}
@@ -0,0 +1,73 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a semester's calendar feed from scratch, refreshing it when nothing changed, and
+ * refreshing it after a handful of edits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CalendarExportBenchmark {
+    private static final int EDITS_PER_REFRESH = 10;
+
+    @Param({"100000"})
+    private int assignmentCount;
+
+    private Path dir;
+    private DataService dataService;
+    private List<Assignment> assignments;
+    private CalendarExporter feed;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        dir = Files.createTempDirectory("jscheduler-calendar");
+        dataService = new DataService(new MemoryStorageBackend(SemesterFixtures.create(assignmentCount)));
+        assignments = dataService.getAssignments();
+        feed = new CalendarExporter(dir.resolve("feed.ics"));
+        feed.export(dataService, Runnable::run);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public CalendarExporter.Summary fullExport() throws IOException, InterruptedException {
+        return new CalendarExporter(dir.resolve("full.ics")).export(dataService, Runnable::run);
+    }
+
+    @Benchmark
+    public CalendarExporter.Summary refreshUnchanged() throws IOException, InterruptedException {
+        return feed.export(dataService, Runnable::run);
+    }
+
+    @Benchmark
+    public CalendarExporter.Summary editThenRefresh() throws IOException, InterruptedException {
+        for (int i = 0; i < EDITS_PER_REFRESH; i++) {
+            Assignment assignment = assignments.get(edits++ * 7919 % assignments.size());
+            assignment.setNotes(edits % 2 == 0 ? "Bring calculator" : "Chapter " + edits);
+        }
+        return feed.export(dataService, Runnable::run);
+    }
+}
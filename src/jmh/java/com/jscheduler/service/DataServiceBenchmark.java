@@ -0,0 +1,128 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataServiceBenchmark {
+    private static final int ASSIGNMENTS_PER_DELETED_COURSE = 10;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"100", "10000", "1000000"})
+    private int assignmentCount;
+
+    private Path appDir;
+    private DataService dataService;
+    private String targetCourseId;
+    private int reschedules;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        appDir = Files.createTempDirectory("jscheduler-bench");
+        JsonPersistenceService persistenceService = new JsonPersistenceService(appDir);
+        persistenceService.save(SemesterFixtures.create(assignmentCount));
+        dataService = new DataService(persistenceService);
+        targetCourseId = dataService.getCourses().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(appDir);
+    }
+
+    @Benchmark
+    public Assignment addAssignment() {
+        Assignment assignment = new Assignment(targetCourseId, "Benchmark", "", LocalDate.of(2026, 10, 1),
+                null, AssignmentStatus.NOT_STARTED, "");
+        dataService.addAssignment(assignment);
+        return assignment;
+    }
+
+    @Benchmark
+    public void addAssignmentsOneByOne() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            addAssignment();
+        }
+    }
+
+    @Benchmark
+    public void addAssignmentsInBatch() {
+        dataService.batch(batch -> {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.addAssignment(new Assignment(targetCourseId, "Benchmark", "", LocalDate.of(2026, 10, 1),
+                        null, AssignmentStatus.NOT_STARTED, ""));
+            }
+        });
+    }
+
+    @Benchmark
+    public void deleteCourse(DoomedCourse doomed) {
+        dataService.deleteCourse(doomed.course);
+    }
+
+    @Benchmark
+    public Assignment getNextDueAssignment() {
+        return dataService.getNextDueAssignment();
+    }
+
+    @Benchmark
+    public List<Assignment> getAssignmentsDueBetween() {
+        return dataService.getAssignmentsDueBetween(LocalDate.of(2026, 10, 5), LocalDate.of(2026, 10, 11));
+    }
+
+    /**
+     * Moves one due date and asks for the next due assignment, the index work behind a save
+     * from the detail panel.
+     */
+    @Benchmark
+    public Assignment rescheduleThenGetNextDue() {
+        List<Assignment> assignments = dataService.getAssignments();
+        Assignment assignment = assignments.get(reschedules++ % assignments.size());
+        assignment.setDueDate(LocalDate.of(2026, 9, 1).plusDays(reschedules % 120));
+        return dataService.getNextDueAssignment();
+    }
+
+    /**
+     * Stages a throwaway course directly in the in-memory model so that
+     * {@link #deleteCourse(DoomedCourse)} only measures the delete and its save.
+     */
+    @State(Scope.Benchmark)
+    public static class DoomedCourse {
+        private Course course;
+
+        @Setup(Level.Invocation)
+        public void stage(DataServiceBenchmark benchmark) {
+            DataService dataService = benchmark.dataService;
+            course = new Course("Doomed", "", "Nobody", "Fall 2026");
+            dataService.getCurrentSemester().addCourse(course);
+            dataService.getCourses().add(course);
+            for (int i = 0; i < ASSIGNMENTS_PER_DELETED_COURSE; i++) {
+                Assignment assignment = new Assignment(course.getId(), "Doomed " + i, "",
+                        LocalDate.of(2026, 9, 1), null, AssignmentStatus.NOT_STARTED, "");
+                dataService.getCurrentSemester().addAssignment(assignment);
+                dataService.getAssignments().add(assignment);
+            }
+        }
+    }
+}
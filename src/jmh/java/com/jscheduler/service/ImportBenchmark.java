@@ -0,0 +1,111 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading an import file on its own, and importing it into a loaded semester with the
+ * search, due date and per-course indexes built. One row in ten repeats the one before it,
+ * so the duplicate check is exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportBenchmark {
+    private static final int EXISTING_ASSIGNMENTS = 10_000;
+
+    @Param({"100000"})
+    private int rowCount;
+
+    @Param({"csv", "ics"})
+    private String format;
+
+    private Path dir;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        dir = Files.createTempDirectory("jscheduler-import");
+        file = dir.resolve("syllabus." + format);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            if (format.equals("csv")) {
+                out.write("course,title,description,due,status,notes\n");
+            } else {
+                out.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+            }
+            for (int i = 0; i < rowCount; i++) {
+                int row = i % 10 == 9 ? i - 1 : i;
+                LocalDate due = LocalDate.of(2026, 9, 1).plusDays(row % 120);
+                if (format.equals("csv")) {
+                    out.write("Course " + row % 40 + ",\"Reading " + row + ", chapter " + row % 30
+                            + "\",Read and summarize," + due + ",Not Started,\n");
+                } else {
+                    out.write("BEGIN:VTODO\r\nSUMMARY:Reading " + row + "\\, chapter " + row % 30
+                            + "\r\nCATEGORIES:Course " + row % 40 + "\r\nDESCRIPTION:Read and summarize\r\nDUE;VALUE=DATE:"
+                            + due.toString().replace("-", "") + "\r\nSTATUS:NEEDS-ACTION\r\nEND:VTODO\r\n");
+                }
+            }
+            if (format.equals("ics")) {
+                out.write("END:VCALENDAR\r\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long records = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            ImportRecordReader reader = format.equals("csv") ? new CsvRecordReader(in) : new IcsRecordReader(in);
+            Map<String, String> record = new HashMap<>();
+            while (reader.next(record)) {
+                records++;
+            }
+        }
+        return records;
+    }
+
+    @Benchmark
+    public AssignmentImporter.Summary importFile(LoadedSemester semester) throws IOException, InterruptedException {
+        return new AssignmentImporter(semester.dataService).importFile(file, fraction -> { }, Runnable::run, () -> false);
+    }
+
+    /**
+     * A fresh semester for each import, so every run adds the same rows.
+     */
+    @State(Scope.Benchmark)
+    public static class LoadedSemester {
+        private DataService dataService;
+
+        @Setup(Level.Invocation)
+        public void load() {
+            dataService = new DataService(new MemoryStorageBackend(SemesterFixtures.create(EXISTING_ASSIGNMENTS)));
+            dataService.search("reading", 1);
+            dataService.getNextDueAssignment();
+            dataService.getCourseAssignments(dataService.getCourses().get(0).getId());
+        }
+    }
+}
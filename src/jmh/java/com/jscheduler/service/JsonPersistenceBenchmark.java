@@ -0,0 +1,58 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Semester;
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonPersistenceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int assignmentCount;
+
+    @Param({"json", "binary", "mapped"})
+    private String format;
+
+    private Path appDir;
+    private JsonPersistenceService persistenceService;
+    private Semester semester;
+
+    @Setup
+    public void setUp() throws IOException {
+        appDir = Files.createTempDirectory("jscheduler-bench");
+        System.setProperty("storage.snapshot.lazy", String.valueOf("mapped".equals(format)));
+        persistenceService = new JsonPersistenceService(appDir, !"json".equals(format));
+        semester = SemesterFixtures.create(assignmentCount);
+        persistenceService.save(semester);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(appDir);
+    }
+
+    @Benchmark
+    public Semester load() {
+        return persistenceService.load();
+    }
+
+    @Benchmark
+    public void save() {
+        persistenceService.save(semester);
+    }
+}
@@ -0,0 +1,84 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes per assignment: read gc.alloc.rate.norm, which is normalized to one row. The
+ * strings and dates are made up front, so create counts only the model objects, and
+ * createAndIndex adds what loading them into a DataService with its search, due date and
+ * per-course indexes built costs on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelFootprintBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int COURSES = 100;
+    private static final LocalDate START = LocalDate.of(2026, 8, 24);
+
+    private final Assignment[] rows = new Assignment[ROWS];
+    private final String[] ids = new String[ROWS];
+    private final String[] titles = new String[ROWS];
+    private final String[] courseIds = new String[COURSES];
+    private final LocalDate[] dates = new LocalDate[120];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            ids[i] = "a_" + String.format("%08x", i);
+            titles[i] = "Assignment " + i;
+        }
+        for (int i = 0; i < COURSES; i++) {
+            courseIds[i] = "c_" + String.format("%08x", i);
+        }
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = START.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Assignment[] create() {
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = row(i);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public DataService createAndIndex() {
+        Semester semester = new Semester("Fall 2026");
+        for (int i = 0; i < COURSES; i++) {
+            semester.addCourse(new Course(courseIds[i], "Course " + i, "", "Professor", "Fall 2026"));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            semester.addAssignment(row(i));
+        }
+        DataService dataService = new DataService(new MemoryStorageBackend(semester));
+        dataService.search("assignment", 1);
+        dataService.getNextDueAssignment();
+        dataService.getCourseAssignments(courseIds[0]);
+        return dataService;
+    }
+
+    private Assignment row(int i) {
+        LocalDate due = dates[i % dates.length];
+        return new Assignment(ids[i], courseIds[i % COURSES], titles[i], "Read the chapter.",
+                due, i % 2 == 0 ? due : null, AssignmentStatus.NOT_STARTED, "");
+    }
+}
@@ -0,0 +1,68 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead search over the full-text index, against the row-by-row scan it replaces.
+ * Queries cover a rare word, a prefix, a word matched inside others and two words.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+    private static final int LIMIT = 50;
+
+    @Param({"10000", "500000"})
+    private int assignmentCount;
+
+    @Param({"12345", "calc", "apter", "chapter 7"})
+    private String query;
+
+    private DataService dataService;
+    private List<Assignment> assignments;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataService = new DataService(new MemoryStorageBackend(SemesterFixtures.create(assignmentCount)));
+        assignments = dataService.getAssignments();
+        dataService.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public List<Assignment> search() {
+        return dataService.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public long scan() {
+        AssignmentFilter filter = new AssignmentFilter(query, null, null, null);
+        long matches = 0;
+        for (Assignment assignment : assignments) {
+            if (filter.test(assignment)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<Assignment> editThenSearch() {
+        Assignment assignment = assignments.get(edits++ % assignments.size());
+        assignment.setNotes(edits % 2 == 0 ? "Bring calculator" : "Chapter " + edits);
+        return dataService.search(query, LIMIT);
+    }
+}
@@ -0,0 +1,90 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Semester;
+import com.jscheduler.model.SemesterFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the storage backends on the operations {@link DataService} drives: loading at
+ * startup, a full snapshot, and writing a burst of edits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBackendBenchmark {
+    private static final int EDITS_PER_BURST = 100;
+
+    @Param({"10000", "1000000"})
+    private int assignmentCount;
+
+    @Param({StorageBackends.JSON, StorageBackends.BINARY, StorageBackends.MEMORY})
+    private String backend;
+
+    private Path appDir;
+    private StorageBackend storage;
+    private Semester semester;
+    private int edits;
+
+    @Setup
+    public void setUp() throws IOException {
+        appDir = Files.createTempDirectory("jscheduler-bench");
+        System.setProperty("storage.snapshot.lazy", "false");
+        storage = switch (backend) {
+            case StorageBackends.JSON -> new JsonPersistenceService(appDir, false);
+            case StorageBackends.BINARY -> new JsonPersistenceService(appDir, true);
+            default -> new MemoryStorageBackend();
+        };
+        semester = SemesterFixtures.create(assignmentCount);
+        storage.save(semester);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        storage.close();
+        BenchmarkFiles.deleteRecursively(appDir);
+    }
+
+    @Benchmark
+    public Semester load() {
+        return storage.load(fraction -> { });
+    }
+
+    @Benchmark
+    public boolean save() {
+        return storage.save(semester);
+    }
+
+    @Benchmark
+    public boolean applyEdits() {
+        List<StorageBackend.Change> changes = new ArrayList<>(EDITS_PER_BURST);
+        List<Assignment> assignments = semester.getAssignments();
+        for (int i = 0; i < EDITS_PER_BURST; i++) {
+            Assignment assignment = assignments.get(edits++ % assignments.size());
+            assignment.setStatus(AssignmentStatus.IN_PROGRESS);
+            changes.add(storage.assignmentSaved(assignment));
+        }
+        boolean applied = storage.apply(changes);
+        if (storage.isCompactionDue(0)) {
+            // Keep the journal from growing across iterations, as DataService would
+            storage.save(semester);
+        }
+        return applied;
+    }
+}
@@ -1,5 +1,8 @@
 package com.jscheduler;
 
+import com.jscheduler.data.JdbcStorageBackend;
+import com.jscheduler.service.DataService;
+import com.jscheduler.service.StorageBackends;
 import java.io.IOException;
 import java.util.Objects;
 import javafx.application.Application;
@@ -9,6 +12,12 @@ import javafx.stage.Stage;
 
 public class App extends Application {
 
+    @Override
+    public void init() {
+        // The service layer does not depend on the data layer, so its backend is wired here
+        StorageBackends.register(JdbcStorageBackend.NAME, JdbcStorageBackend::new);
+    }
+
     @Override
     public void start(Stage stage) throws IOException {
         FXMLLoader loader = new FXMLLoader(
@@ -20,6 +29,12 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        // Write anything the background saver has not persisted yet.
+        DataService.getInstance().shutdown();
+    }
+
     public static void main(String[] args) {
         launch();
     }
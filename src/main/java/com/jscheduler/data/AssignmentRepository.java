@@ -2,20 +2,59 @@ package com.jscheduler.data;
 
 import com.jscheduler.model.Assignment;
 import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.AssignmentsByCourse;
+import com.jscheduler.model.EntityIds;
+import com.jscheduler.util.LongMap;
+import com.jscheduler.util.StringPool;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+/**
+ * Reads and writes the assignments table. With db.outbox.enabled set, writes update the
+ * list at once and are queued in the {@link Outbox}, which sends them in the background;
+ * the windowed list shows them once they have reached the database.
+ */
 public class AssignmentRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO assignments (id, course_id, title, description, due_date, deadline, status, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE assignments SET course_id = ?, title = ?, description = ?, " +
+            "due_date = ?, deadline = ?, status = ?, notes = ? WHERE id = ?";
+    static final String DELETE_SQL = "DELETE FROM assignments WHERE id = ?";
+    private static final String COLUMNS = "SELECT id, course_id, title, description, due_date, deadline, status, notes ";
+    static final String SELECT_ALL_SQL = COLUMNS + "FROM assignments ORDER BY due_date ASC";
+    private static final String CHANGED_SINCE_SQL = COLUMNS + "FROM assignments WHERE updated_at >= ?";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM assignments";
+    static final String TABLE = "assignments";
+
     private static AssignmentRepository instance;
     private final ObservableList<Assignment> assignments;
+    private final AssignmentsByCourse byCourse;
     private final DatabaseConnection dbConnection;
+    private final ChangeTracker changes;
+    private boolean loaded;
+    private PagedAssignmentList window;
 
     private AssignmentRepository() {
         assignments = FXCollections.observableArrayList();
+        byCourse = new AssignmentsByCourse(assignments);
         dbConnection = DatabaseConnection.getInstance();
-        loadAssignmentsFromDatabase();
+        changes = new ChangeTracker(TABLE, dbConnection.getSyncOverlapMillis(),
+                dbConnection.getTombstoneRetentionMillis());
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            outbox.addListener(this::onSynced);
+        }
     }
 
     public static AssignmentRepository getInstance() {
@@ -25,34 +64,62 @@ public class AssignmentRepository {
         return instance;
     }
 
+    /**
+     * Get every assignment, reading the whole table on first use unless {@link #loadAsync()}
+     * has already been started.
+     * For large tables prefer {@link #getAssignmentWindow()}.
+     * @return ObservableList of all assignments
+     */
     public ObservableList<Assignment> getAssignments() {
+        if (!loaded) {
+            loadAssignmentsFromDatabase();
+        }
         return assignments;
     }
 
+    /**
+     * Get a windowed view of all assignments ordered by due date. Rows are fetched in
+     * pages of db.page.size as they are displayed and at most db.page.cached pages are
+     * held, so memory stays constant however large the table grows.
+     * @return ObservableList whose rows are null until their page has loaded
+     */
+    public ObservableList<Assignment> getAssignmentWindow() {
+        if (window == null) {
+            window = new PagedAssignmentList(dbConnection, dbConnection.getPageSize(), dbConnection.getCachedPages());
+        }
+        return window;
+    }
+
+    /**
+     * Load all assignments on a background thread, adding them to the list returned by
+     * {@link #getAssignments()} in batches of db.page.size rows as they are read.
+     * Call from the FX thread, and make no changes until the task has succeeded.
+     * @return the running task; its value is the number of assignments loaded
+     */
+    public Task<Integer> loadAsync() {
+        loaded = true;
+        return StreamingLoad.start(dbConnection, COUNT_SQL, SELECT_ALL_SQL, AssignmentRepository::readAssignment,
+                assignments, dbConnection.getPageSize(), "assignments", changes, () -> overlayPending(assignments));
+    }
+
     /**
      * Load all assignments from the database into the observable list.
      */
     private void loadAssignmentsFromDatabase() {
-        String sql = "SELECT id, course_id, title, description, due_date, deadline, status, notes " +
-                     "FROM assignments ORDER BY due_date ASC";
-        try (Connection conn = dbConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            assignments.clear();
-            while (rs.next()) {
-                Assignment assignment = new Assignment(
-                        rs.getString("id"),
-                        rs.getString("course_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getDate("due_date") != null ? rs.getDate("due_date").toLocalDate() : null,
-                        rs.getDate("deadline") != null ? rs.getDate("deadline").toLocalDate() : null,
-                        AssignmentStatus.fromString(rs.getString("status")),
-                        rs.getString("notes")
-                );
-                assignments.add(assignment);
+        try (Connection conn = dbConnection.getConnection()) {
+            Timestamp startedAt = ChangeTracker.databaseTime(conn);
+            List<Assignment> loadedAssignments;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+                loadedAssignments = new ArrayList<>();
+                while (rs.next()) {
+                    loadedAssignments.add(readAssignment(rs));
+                }
             }
+            overlayPending(loadedAssignments);
+            assignments.setAll(loadedAssignments);
+            loaded = true;
+            changes.synced(startedAt);
             System.out.println("Loaded " + assignments.size() + " assignments from database");
         } catch (SQLException e) {
             System.err.println("Error loading assignments from database: " + e.getMessage());
@@ -60,29 +127,81 @@ public class AssignmentRepository {
         }
     }
 
+    /**
+     * Apply writes still waiting in the outbox to rows read from the database.
+     */
+    private void overlayPending(List<Assignment> rows) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            outbox.overlay(TABLE, EntityIds.ASSIGNMENT, rows, Assignment::getKey, Outbox.Entry::assignment);
+        }
+    }
+
+    /**
+     * Called on the sync thread after queued writes have been sent. Rows whose writes were
+     * discarded are read again by the next refresh, so the list picks up the server's version.
+     */
+    private void onSynced(List<Outbox.Entry> written, List<Outbox.Entry> discarded) {
+        boolean changed = false;
+        for (Outbox.Entry entry : written) {
+            changed |= entry.table().equals(TABLE);
+        }
+        for (Outbox.Entry entry : discarded) {
+            if (entry.table().equals(TABLE)) {
+                changed = true;
+                if (entry.base() != null) {
+                    changes.rewind(entry.base());
+                }
+            }
+        }
+        if (changed && window != null) {
+            Platform.runLater(this::invalidateWindow);
+        }
+    }
+
+    /**
+     * Map the current row of a query selecting the assignment columns.
+     * @param rs Result set positioned on a row
+     * @return the assignment in that row
+     * @throws SQLException if a column cannot be read
+     */
+    static Assignment readAssignment(ResultSet rs) throws SQLException {
+        return new Assignment(
+                rs.getString("id"),
+                StringPool.getInstance().canonical(rs.getString("course_id")),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getDate("due_date") != null ? rs.getDate("due_date").toLocalDate() : null,
+                rs.getDate("deadline") != null ? rs.getDate("deadline").toLocalDate() : null,
+                AssignmentStatus.fromString(rs.getString("status")),
+                rs.getString("notes")
+        );
+    }
+
     /**
      * Add a new assignment to both the database and observable list.
      * @param assignment Assignment to add
      * @return true if successful, false otherwise
      */
     public boolean addAssignment(Assignment assignment) {
-        String sql = "INSERT INTO assignments (id, course_id, title, description, due_date, deadline, status, notes) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            if (!outbox.add(List.of(Outbox.put(TABLE, assignment, changes.syncedAt())))) {
+                return false;
+            }
+            assignments.add(assignment);
+            System.out.println("Assignment added: " + assignment.getTitle());
+            return true;
+        }
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
-            pstmt.setString(1, assignment.getId());
-            pstmt.setString(2, assignment.getCourseId());
-            pstmt.setString(3, assignment.getTitle());
-            pstmt.setString(4, assignment.getDescription());
-            pstmt.setDate(5, assignment.getDueDate() != null ? Date.valueOf(assignment.getDueDate()) : null);
-            pstmt.setDate(6, assignment.getSubmissionDeadline() != null ? Date.valueOf(assignment.getSubmissionDeadline()) : null);
-            pstmt.setString(7, assignment.getStatus().getDisplayName());
-            pstmt.setString(8, assignment.getNotes());
+            bindInsert(pstmt, assignment);
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
                 assignments.add(assignment);
+                invalidateWindow();
                 System.out.println("Assignment added: " + assignment.getTitle());
                 return true;
             }
@@ -99,15 +218,30 @@ public class AssignmentRepository {
      * @return true if successful, false otherwise
      */
     public boolean removeAssignment(Assignment assignment) {
-        String sql = "DELETE FROM assignments WHERE id = ?";
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, assignment.getId());
-            int rowsAffected = pstmt.executeUpdate();
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            if (!outbox.add(List.of(Outbox.remove(TABLE, assignment.getId(), changes.syncedAt())))) {
+                return false;
+            }
+            assignments.remove(assignment);
+            System.out.println("Assignment removed: " + assignment.getTitle());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            int rowsAffected = JdbcBatch.inTransaction(conn, () -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                    bindDelete(pstmt, assignment);
+                    int deleted = pstmt.executeUpdate();
+                    if (deleted > 0) {
+                        changes.recordDeletes(conn, List.of(assignment.getId()), 1);
+                    }
+                    return deleted;
+                }
+            });
 
             if (rowsAffected > 0) {
                 assignments.remove(assignment);
+                invalidateWindow();
                 System.out.println("Assignment removed: " + assignment.getTitle());
                 return true;
             }
@@ -124,22 +258,22 @@ public class AssignmentRepository {
      * @return true if successful, false otherwise
      */
     public boolean updateAssignment(Assignment assignment) {
-        String sql = "UPDATE assignments SET course_id = ?, title = ?, description = ?, " +
-                     "due_date = ?, deadline = ?, status = ?, notes = ? WHERE id = ?";
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            if (!outbox.add(List.of(Outbox.put(TABLE, assignment, changes.syncedAt())))) {
+                return false;
+            }
+            System.out.println("Assignment updated: " + assignment.getTitle());
+            return true;
+        }
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
 
-            pstmt.setString(1, assignment.getCourseId());
-            pstmt.setString(2, assignment.getTitle());
-            pstmt.setString(3, assignment.getDescription());
-            pstmt.setDate(4, assignment.getDueDate() != null ? Date.valueOf(assignment.getDueDate()) : null);
-            pstmt.setDate(5, assignment.getSubmissionDeadline() != null ? Date.valueOf(assignment.getSubmissionDeadline()) : null);
-            pstmt.setString(6, assignment.getStatus().getDisplayName());
-            pstmt.setString(7, assignment.getNotes());
-            pstmt.setString(8, assignment.getId());
+            bindUpdate(pstmt, assignment);
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
+                invalidateWindow();
                 System.out.println("Assignment updated: " + assignment.getTitle());
                 return true;
             }
@@ -151,24 +285,247 @@ public class AssignmentRepository {
     }
 
     /**
-     * Get assignments for a specific course.
-     * @param courseId The course ID
-     * @return ObservableList of assignments for the course
+     * Add many assignments in one transaction, sent in batches of db.batchSize rows.
+     * The observable list receives them as a single change.
+     * @param toAdd Assignments to add
+     * @return true if all were added, false if the transaction was rolled back
      */
-    public ObservableList<Assignment> getAssignmentsByCourse(String courseId) {
-        ObservableList<Assignment> courseAssignments = FXCollections.observableArrayList();
-        for (Assignment assignment : assignments) {
-            if (assignment.getCourseId().equals(courseId)) {
-                courseAssignments.add(assignment);
+    public boolean addAll(Collection<Assignment> toAdd) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toAdd.stream().map(assignment -> Outbox.put(TABLE, assignment, base)).toList())) {
+                return false;
+            }
+            assignments.addAll(toAdd);
+            System.out.println("Assignments added: " + toAdd.size());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Assignment> added = JdbcBatch.execute(conn, INSERT_SQL, toAdd,
+                    dbConnection.getBatchSize(), AssignmentRepository::bindInsert);
+            assignments.addAll(added);
+            invalidateWindow();
+            System.out.println("Assignments added: " + added.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding assignments: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Write many edited assignments in one transaction, sent in batches of db.batchSize rows.
+     * @param toUpdate Assignments whose properties have already been changed
+     * @return true if the transaction committed, false if it was rolled back
+     */
+    public boolean updateAll(Collection<Assignment> toUpdate) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toUpdate.stream().map(assignment -> Outbox.put(TABLE, assignment, base)).toList())) {
+                return false;
             }
+            System.out.println("Assignments updated: " + toUpdate.size());
+            return true;
         }
-        return courseAssignments;
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Assignment> updated = JdbcBatch.execute(conn, UPDATE_SQL, toUpdate,
+                    dbConnection.getBatchSize(), AssignmentRepository::bindUpdate);
+            invalidateWindow();
+            System.out.println("Assignments updated: " + updated.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error updating assignments: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Remove many assignments in one transaction, sent in batches of db.batchSize rows.
+     * The observable list loses them as a single change.
+     * @param toRemove Assignments to remove
+     * @return true if the transaction committed, false if it was rolled back
+     */
+    public boolean removeAll(Collection<Assignment> toRemove) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toRemove.stream()
+                    .map(assignment -> Outbox.remove(TABLE, assignment.getId(), base)).toList())) {
+                return false;
+            }
+            assignments.removeAll(new HashSet<>(toRemove));
+            System.out.println("Assignments removed: " + toRemove.size());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            int batchSize = dbConnection.getBatchSize();
+            List<Assignment> removed = JdbcBatch.inTransaction(conn, () -> {
+                List<Assignment> deleted = JdbcBatch.execute(conn, DELETE_SQL, toRemove,
+                        batchSize, AssignmentRepository::bindDelete);
+                changes.recordDeletes(conn, deleted.stream().map(Assignment::getId).toList(), batchSize);
+                return deleted;
+            });
+            assignments.removeAll(new HashSet<>(removed));
+            invalidateWindow();
+            System.out.println("Assignments removed: " + removed.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error removing assignments: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    static void bindInsert(PreparedStatement pstmt, Assignment assignment) throws SQLException {
+        pstmt.setString(1, assignment.getId());
+        pstmt.setString(2, assignment.getCourseId());
+        pstmt.setString(3, assignment.getTitle());
+        pstmt.setString(4, assignment.getDescription());
+        pstmt.setDate(5, assignment.getDueDate() != null ? Date.valueOf(assignment.getDueDate()) : null);
+        pstmt.setDate(6, assignment.getSubmissionDeadline() != null ? Date.valueOf(assignment.getSubmissionDeadline()) : null);
+        pstmt.setString(7, assignment.getStatus().getDisplayName());
+        pstmt.setString(8, assignment.getNotes());
+    }
+
+    private static void bindUpdate(PreparedStatement pstmt, Assignment assignment) throws SQLException {
+        pstmt.setString(1, assignment.getCourseId());
+        pstmt.setString(2, assignment.getTitle());
+        pstmt.setString(3, assignment.getDescription());
+        pstmt.setDate(4, assignment.getDueDate() != null ? Date.valueOf(assignment.getDueDate()) : null);
+        pstmt.setDate(5, assignment.getSubmissionDeadline() != null ? Date.valueOf(assignment.getSubmissionDeadline()) : null);
+        pstmt.setString(6, assignment.getStatus().getDisplayName());
+        pstmt.setString(7, assignment.getNotes());
+        pstmt.setString(8, assignment.getId());
+    }
+
+    private static void bindDelete(PreparedStatement pstmt, Assignment assignment) throws SQLException {
+        pstmt.setString(1, assignment.getId());
+    }
+
+    private void invalidateWindow() {
+        if (window != null) {
+            window.invalidate();
+        }
+    }
+
+    /**
+     * Get assignments for a specific course, from an index grouping the list by course.
+     * @param courseId The course ID
+     * @return live, read-only ObservableList of assignments for the course; the same list
+     *         on every call
+     */
+    public ObservableList<Assignment> getAssignmentsByCourse(String courseId) {
+        getAssignments();
+        return byCourse.view(courseId);
     }
 
     /**
-     * Reload all assignments from the database.
+     * Bring the list up to date with the database. Only rows whose updated_at moved since
+     * the last load or refresh are read, and rows other clients deleted are dropped, so
+     * existing Assignment objects are patched in place. Falls back to a full reload when
+     * nothing has been loaded yet or the last sync is older than the tombstones are kept.
      */
     public void refresh() {
+        if (loaded && refreshChanges()) {
+            return;
+        }
         loadAssignmentsFromDatabase();
+        invalidateWindow();
+    }
+
+    /**
+     * @return false if the table needs a full reload instead
+     */
+    private boolean refreshChanges() {
+        try (Connection conn = dbConnection.getConnection()) {
+            Timestamp startedAt = ChangeTracker.databaseTime(conn);
+            Timestamp since = changes.changesSince(startedAt);
+            if (since == null) {
+                return false;
+            }
+            Set<String> deletedIds = changes.deletedSince(conn, since);
+            List<Assignment> changed = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(CHANGED_SINCE_SQL)) {
+                pstmt.setTimestamp(1, since);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(readAssignment(rs));
+                    }
+                }
+            }
+            changes.purgeExpired(conn, startedAt);
+
+            if (applyChanges(changed, deletedIds)) {
+                invalidateWindow();
+            }
+            changes.synced(startedAt);
+            System.out.println("Refreshed assignments: " + changed.size() + " changed, "
+                    + deletedIds.size() + " deleted");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error refreshing assignments: " + e.getMessage());
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    /**
+     * Patch the list: copy changed rows onto the objects already shown, add new ones and
+     * remove deleted ones, each as a single change to the list. Rows with writes still in
+     * the outbox keep their local state.
+     * @return true if the list or any row in it changed
+     */
+    private boolean applyChanges(List<Assignment> changed, Set<String> deletedIds) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Set<String> pendingIds = outbox.pendingIds(TABLE);
+            changed.removeIf(row -> pendingIds.contains(row.getId()));
+            deletedIds.removeAll(pendingIds);
+        }
+        if (changed.isEmpty() && deletedIds.isEmpty()) {
+            return false;
+        }
+        // Keyed by number, so no row's id is formatted
+        LongMap<Assignment> byKey = new LongMap<>(assignments.size());
+        for (Assignment assignment : assignments) {
+            byKey.put(assignment.getKey(), assignment);
+        }
+
+        List<Assignment> added = new ArrayList<>();
+        Set<Long> changedKeys = new HashSet<>();
+        for (Assignment row : changed) {
+            changedKeys.add(row.getKey());
+            Assignment existing = byKey.get(row.getKey());
+            if (existing == null) {
+                added.add(row);
+                byKey.put(row.getKey(), row);
+            } else {
+                existing.setCourseId(row.getCourseId());
+                existing.setTitle(row.getTitle());
+                existing.setDescription(row.getDescription());
+                existing.setDueDate(row.getDueDate());
+                existing.setSubmissionDeadline(row.getSubmissionDeadline());
+                existing.setStatus(row.getStatus());
+                existing.setNotes(row.getNotes());
+            }
+        }
+
+        // A row that is back in the table after its tombstone was written stays
+        Set<Assignment> removed = new HashSet<>();
+        for (String id : deletedIds) {
+            long key = EntityIds.parse(EntityIds.ASSIGNMENT, id);
+            Assignment existing = byKey.get(key);
+            if (existing != null && !changedKeys.contains(key)) {
+                removed.add(existing);
+            }
+        }
+
+        assignments.addAll(added);
+        assignments.removeAll(removed);
+        return true;
     }
 }
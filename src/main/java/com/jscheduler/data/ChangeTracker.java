@@ -0,0 +1,163 @@
+package com.jscheduler.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers how far one table has been synced, so a refresh can ask only for rows whose
+ * updated_at moved since then, and records deletions in the deleted_rows table so other
+ * clients learn about rows that no longer exist.
+ *
+ * <p>Sync points are taken from the database clock, the same clock that stamps
+ * updated_at. Each refresh re-reads a short overlap before the last sync point, because a
+ * row stamped just before it may not have been committed when that refresh ran; reapplying
+ * a row is harmless.
+ */
+final class ChangeTracker {
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP";
+    private static final String TOMBSTONE_SQL =
+            "INSERT INTO deleted_rows (table_name, row_id) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP";
+    private static final String TOMBSTONE_AT_SQL =
+            "INSERT INTO deleted_rows (table_name, row_id, deleted_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE deleted_at = VALUES(deleted_at)";
+    private static final String DELETED_SINCE_SQL =
+            "SELECT row_id FROM deleted_rows WHERE table_name = ? AND deleted_at >= ?";
+    private static final String PURGE_SQL = "DELETE FROM deleted_rows WHERE deleted_at < ?";
+
+    private final String table;
+    private final long overlapMillis;
+    private final long retentionMillis;
+    // Database time at which the last complete load or refresh started; null until one succeeds
+    private Timestamp syncedAt;
+
+    ChangeTracker(String table, long overlapMillis, long retentionMillis) {
+        this.table = table;
+        this.overlapMillis = overlapMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * @return the database's current time, to pass to {@link #synced} once the read it
+     *         precedes has been applied
+     */
+    static Timestamp databaseTime(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(NOW_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * Record that every change made before the given database time has been applied.
+     */
+    synchronized void synced(Timestamp startedAt) {
+        syncedAt = startedAt;
+    }
+
+    /**
+     * @return the database time of the last complete load or refresh, or null if there was none
+     */
+    synchronized Timestamp syncedAt() {
+        return syncedAt;
+    }
+
+    /**
+     * Move the sync point back, so the next refresh reads again every change made since
+     * the given time. Has no effect if the sync point is already earlier or not set.
+     */
+    synchronized void rewind(Timestamp to) {
+        if (syncedAt != null && to.before(syncedAt)) {
+            syncedAt = to;
+        }
+    }
+
+    /**
+     * @param now the database's current time
+     * @return the time to read changes from, or null if there is no sync point or it is
+     *         older than the tombstones are kept, in which case the table must be reloaded
+     */
+    synchronized Timestamp changesSince(Timestamp now) {
+        if (syncedAt == null || now.getTime() - syncedAt.getTime() > retentionMillis) {
+            return null;
+        }
+        return new Timestamp(syncedAt.getTime() - overlapMillis);
+    }
+
+    /**
+     * Get the ids of rows deleted from this table at or after the given time.
+     */
+    Set<String> deletedSince(Connection conn, Timestamp since) throws SQLException {
+        Set<String> ids = new HashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETED_SINCE_SQL)) {
+            pstmt.setString(1, table);
+            pstmt.setTimestamp(2, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Write tombstones for deleted rows of this table. Run inside the transaction that
+     * deletes them so both commit or neither does.
+     */
+    void recordDeletes(Connection conn, Collection<String> ids, int batchSize) throws SQLException {
+        recordDeletes(conn, table, ids, batchSize);
+    }
+
+    static void recordDeletes(Connection conn, String table, Collection<String> ids, int batchSize)
+            throws SQLException {
+        recordDeletes(conn, table, ids, batchSize, null);
+    }
+
+    /**
+     * Write tombstones stamped with the given database time instead of the statement's.
+     * @param deletedAt the time to record, or null for the current time
+     */
+    static void recordDeletes(Connection conn, String table, Collection<String> ids, int batchSize,
+                              Timestamp deletedAt) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(deletedAt != null ? TOMBSTONE_AT_SQL : TOMBSTONE_SQL)) {
+            int pending = 0;
+            for (String id : ids) {
+                pstmt.setString(1, table);
+                pstmt.setString(2, id);
+                if (deletedAt != null) {
+                    pstmt.setTimestamp(3, deletedAt);
+                }
+                pstmt.addBatch();
+                if (++pending >= batchSize) {
+                    pstmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Drop tombstones older than the retention period. A client that last synced before
+     * then reloads its table instead of reading changes.
+     */
+    void purgeExpired(Connection conn, Timestamp now) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(PURGE_SQL)) {
+            pstmt.setTimestamp(1, new Timestamp(now.getTime() - retentionMillis));
+            pstmt.executeUpdate();
+        }
+    }
+}
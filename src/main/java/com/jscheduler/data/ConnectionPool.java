@@ -0,0 +1,389 @@
+package com.jscheduler.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of physical JDBC connections. Callers get a proxy whose {@code close()}
+ * hands the connection back instead of closing it, so existing try-with-resources code
+ * pools without changes.
+ *
+ * <p>Idle connections are reused most-recently-returned first and re-validated if they sat
+ * idle for a while. A background thread closes connections idle past the idle timeout, down
+ * to the minimum size, and tops the pool back up to the minimum. Callers wait at most the
+ * acquire timeout when every connection is in use.
+ */
+final class ConnectionPool {
+    // SQLState class for connection failures; a connection that reported one is not reused.
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition returned = lock.newCondition();
+    // Most recently returned first; guarded by lock
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private int openCount;
+    private int activeCount;
+    private int waitingCount;
+    private boolean closed;
+
+    private final ScheduledExecutorService maintenance;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                   long acquireTimeoutMillis, long idleTimeoutMillis, long validateAfterIdleMillis,
+                   int validationTimeoutSeconds) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jscheduler-db-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first run fills the pool to its minimum off the caller's thread, so an
+        // unreachable server does not hold up startup.
+        long period = Math.max(1000, Math.min(idleTimeoutMillis / 2, 30_000));
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the acquire timeout if all are in use.
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLException if no connection could be opened or none was free in time
+     */
+    Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        while (true) {
+            PooledConnection pooled = null;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is shut down");
+                    }
+                    pooled = idle.pollFirst();
+                    if (pooled != null || openCount < maxSize) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.increment();
+                        throw new SQLException("Timed out after " + acquireTimeoutMillis
+                                + " ms waiting for a database connection (pool size " + maxSize + ")");
+                    }
+                    waitingCount++;
+                    try {
+                        returned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a database connection", e);
+                    } finally {
+                        waitingCount--;
+                    }
+                }
+                if (pooled == null) {
+                    openCount++;
+                }
+                activeCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (pooled == null) {
+                try {
+                    pooled = open();
+                } catch (SQLException e) {
+                    forget(true);
+                    throw e;
+                }
+            } else if (!isUsable(pooled)) {
+                discarded.increment();
+                closeQuietly(pooled.physical);
+                forget(true);
+                continue;
+            }
+
+            acquisitions.increment();
+            acquireWaitNanos.add(System.nanoTime() - start);
+            return pooled.lease();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturned < validateAfterIdleMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Take back a connection whose lease was closed.
+     */
+    private void release(PooledConnection pooled, boolean broken) {
+        if (!broken) {
+            broken = !reset(pooled.physical);
+        }
+        lock.lock();
+        try {
+            activeCount--;
+            if (broken || closed) {
+                openCount--;
+            } else {
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.addFirst(pooled);
+            }
+            returned.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (broken || closed) {
+            discarded.increment();
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    /**
+     * Undo anything a caller left behind so the next borrower starts clean.
+     * @return false if the connection could not be reset and should be dropped
+     */
+    private boolean reset(Connection physical) {
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Give up a reserved slot whose connection was never handed out.
+     */
+    private void forget(boolean wasActive) {
+        lock.lock();
+        try {
+            openCount--;
+            if (wasActive) {
+                activeCount--;
+            }
+            returned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void maintain() {
+        List<Connection> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+            // Oldest returns are at the tail
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && openCount > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (pooled.lastReturned > cutoff) {
+                    break;
+                }
+                oldestFirst.remove();
+                openCount--;
+                expired.add(pooled.physical);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Connection connection : expired) {
+            evicted.increment();
+            closeQuietly(connection);
+        }
+
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || openCount >= minSize) {
+                    return;
+                }
+                openCount++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pooled;
+            try {
+                pooled = open();
+            } catch (SQLException e) {
+                forget(false);
+                System.err.println("Could not open pooled database connection: " + e.getMessage());
+                return;
+            }
+            lock.lock();
+            try {
+                pooled.lastReturned = System.currentTimeMillis();
+                idle.addLast(pooled);
+                returned.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the pool's counters
+     */
+    PoolStats getStats() {
+        lock.lock();
+        try {
+            long count = acquisitions.sum();
+            return new PoolStats(openCount, activeCount, idle.size(), waitingCount, maxSize,
+                    count, timeouts.sum(),
+                    count > 0 ? TimeUnit.NANOSECONDS.toMicros(acquireWaitNanos.sum() / count) / 1000.0 : 0,
+                    created.sum(), evicted.sum(), discarded.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close idle connections and refuse new borrowers; connections still in use are
+     * closed as they come back.
+     */
+    void shutdown() {
+        maintenance.shutdownNow();
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            openCount -= idle.size();
+            idle.clear();
+            returned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : toClose) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database connection: " + e.getMessage());
+        }
+    }
+
+    private final class PooledConnection {
+        final Connection physical;
+        long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * A fresh proxy per borrow, so a stale reference kept after close() cannot touch
+         * the connection once someone else holds it.
+         */
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Lease(this));
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+        private boolean broken;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + (closed ? " (closed) " : " ") + pooled.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && sql.getSQLState() != null
+                        && sql.getSQLState().startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
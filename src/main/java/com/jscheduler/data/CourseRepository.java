@@ -1,20 +1,53 @@
 package com.jscheduler.data;
 
 import com.jscheduler.model.Course;
+import com.jscheduler.model.EntityIds;
+import com.jscheduler.util.StringPool;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Reads and writes the courses table. With db.outbox.enabled set, writes update the list
+ * at once and are queued in the {@link Outbox}, which sends them in the background.
+ */
 public class CourseRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO courses (id, name, description, professor, semester) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE courses SET name = ?, description = ?, professor = ?, semester = ? WHERE id = ?";
+    static final String DELETE_SQL = "DELETE FROM courses WHERE id = ?";
+    private static final String COLUMNS = "SELECT id, name, description, professor, semester ";
+    static final String SELECT_ALL_SQL = COLUMNS + "FROM courses ORDER BY semester, name";
+    private static final String CHANGED_SINCE_SQL = COLUMNS + "FROM courses WHERE updated_at >= ?";
+    private static final String ASSIGNMENT_IDS_SQL = "SELECT id FROM assignments WHERE course_id = ?";
+    static final String TABLE = "courses";
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM courses";
+
     private static CourseRepository instance;
     private final ObservableList<Course> courses;
     private final DatabaseConnection dbConnection;
+    private final ChangeTracker changes;
+    private boolean loaded;
 
     private CourseRepository() {
         courses = FXCollections.observableArrayList();
         dbConnection = DatabaseConnection.getInstance();
-        loadCoursesFromDatabase();
+        changes = new ChangeTracker(TABLE, dbConnection.getSyncOverlapMillis(),
+                dbConnection.getTombstoneRetentionMillis());
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            outbox.addListener(this::onSynced);
+        }
     }
 
     public static CourseRepository getInstance() {
@@ -24,30 +57,47 @@ public class CourseRepository {
         return instance;
     }
 
+    /**
+     * Get every course, reading the table on first use unless {@link #loadAsync()} has
+     * already been started.
+     * @return ObservableList of all courses
+     */
     public ObservableList<Course> getCourses() {
+        if (!loaded) {
+            loadCoursesFromDatabase();
+        }
         return courses;
     }
 
+    /**
+     * Load all courses on a background thread, adding them to the list returned by
+     * {@link #getCourses()} in batches as they are read.
+     * Call from the FX thread, and make no changes until the task has succeeded.
+     * @return the running task; its value is the number of courses loaded
+     */
+    public Task<Integer> loadAsync() {
+        loaded = true;
+        return StreamingLoad.start(dbConnection, COUNT_SQL, SELECT_ALL_SQL, CourseRepository::readCourse,
+                courses, dbConnection.getPageSize(), "courses", changes, () -> overlayPending(courses));
+    }
+
     /**
      * Load all courses from the database into the observable list.
      */
     private void loadCoursesFromDatabase() {
-        String sql = "SELECT id, name, description, professor, semester FROM courses ORDER BY semester, name";
-        try (Connection conn = dbConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            courses.clear();
-            while (rs.next()) {
-                Course course = new Course(
-                        rs.getString("id"),
-                        rs.getString("name"),
-                        rs.getString("description"),
-                        rs.getString("professor"),
-                        rs.getString("semester")
-                );
-                courses.add(course);
+        try (Connection conn = dbConnection.getConnection()) {
+            Timestamp startedAt = ChangeTracker.databaseTime(conn);
+            List<Course> loadedCourses = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+                while (rs.next()) {
+                    loadedCourses.add(readCourse(rs));
+                }
             }
+            overlayPending(loadedCourses);
+            courses.setAll(loadedCourses);
+            loaded = true;
+            changes.synced(startedAt);
             System.out.println("Loaded " + courses.size() + " courses from database");
         } catch (SQLException e) {
             System.err.println("Error loading courses from database: " + e.getMessage());
@@ -55,21 +105,58 @@ public class CourseRepository {
         }
     }
 
+    /**
+     * Apply writes still waiting in the outbox to rows read from the database.
+     */
+    private void overlayPending(List<Course> rows) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            outbox.overlay(TABLE, EntityIds.COURSE, rows, Course::getKey, Outbox.Entry::course);
+        }
+    }
+
+    /**
+     * Called on the sync thread after queued writes have been sent. Rows whose writes were
+     * discarded are read again by the next refresh, so the list picks up the server's version.
+     */
+    private void onSynced(List<Outbox.Entry> written, List<Outbox.Entry> discarded) {
+        for (Outbox.Entry entry : discarded) {
+            if (entry.table().equals(TABLE) && entry.base() != null) {
+                changes.rewind(entry.base());
+            }
+        }
+    }
+
+    static Course readCourse(ResultSet rs) throws SQLException {
+        StringPool pool = StringPool.getInstance();
+        return new Course(
+                rs.getString("id"),
+                pool.canonical(rs.getString("name")),
+                rs.getString("description"),
+                pool.canonical(rs.getString("professor")),
+                pool.canonical(rs.getString("semester"))
+        );
+    }
+
     /**
      * Add a new course to both the database and observable list.
      * @param course Course to add
      * @return true if successful, false otherwise
      */
     public boolean addCourse(Course course) {
-        String sql = "INSERT INTO courses (id, name, description, professor, semester) VALUES (?, ?, ?, ?, ?)";
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            if (!outbox.add(List.of(Outbox.put(TABLE, course, changes.syncedAt())))) {
+                return false;
+            }
+            courses.add(course);
+            System.out.println("Course added: " + course.getName());
+            return true;
+        }
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
-            pstmt.setString(1, course.getId());
-            pstmt.setString(2, course.getName());
-            pstmt.setString(3, course.getDescription());
-            pstmt.setString(4, course.getProfessor());
-            pstmt.setString(5, course.getSemester());
+            bindInsert(pstmt, course);
 
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
@@ -90,12 +177,28 @@ public class CourseRepository {
      * @return true if successful, false otherwise
      */
     public boolean removeCourse(Course course) {
-        String sql = "DELETE FROM courses WHERE id = ?";
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, course.getId());
-            int rowsAffected = pstmt.executeUpdate();
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            if (!outbox.add(List.of(Outbox.remove(TABLE, course.getId(), changes.syncedAt())))) {
+                return false;
+            }
+            courses.remove(course);
+            System.out.println("Course removed: " + course.getName());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            int batchSize = dbConnection.getBatchSize();
+            int rowsAffected = JdbcBatch.inTransaction(conn, () -> {
+                recordCascadedDeletes(conn, List.of(course.getId()), batchSize);
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                    bindDelete(pstmt, course);
+                    int deleted = pstmt.executeUpdate();
+                    if (deleted > 0) {
+                        changes.recordDeletes(conn, List.of(course.getId()), 1);
+                    }
+                    return deleted;
+                }
+            });
 
             if (rowsAffected > 0) {
                 courses.remove(course);
@@ -116,9 +219,24 @@ public class CourseRepository {
      * @return true if successful, false otherwise
      */
     public boolean updateCourse(Course oldCourse, Course newCourse) {
-        String sql = "UPDATE courses SET name = ?, description = ?, professor = ?, semester = ? WHERE id = ?";
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Course row = new Course(oldCourse.getId(), newCourse.getName(), newCourse.getDescription(),
+                    newCourse.getProfessor(), newCourse.getSemester());
+            if (!outbox.add(List.of(Outbox.put(TABLE, row, changes.syncedAt())))) {
+                return false;
+            }
+            if (courses.contains(oldCourse)) {
+                oldCourse.setName(newCourse.getName());
+                oldCourse.setDescription(newCourse.getDescription());
+                oldCourse.setProfessor(newCourse.getProfessor());
+                oldCourse.setSemester(newCourse.getSemester());
+            }
+            System.out.println("Course updated: " + newCourse.getName());
+            return true;
+        }
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
 
             pstmt.setString(1, newCourse.getName());
             pstmt.setString(2, newCourse.getDescription());
@@ -147,9 +265,231 @@ public class CourseRepository {
     }
 
     /**
-     * Reload all courses from the database.
+     * Add many courses in one transaction, sent in batches of db.batchSize rows.
+     * The observable list receives them as a single change.
+     * @param toAdd Courses to add
+     * @return true if all were added, false if the transaction was rolled back
+     */
+    public boolean addAll(Collection<Course> toAdd) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toAdd.stream().map(course -> Outbox.put(TABLE, course, base)).toList())) {
+                return false;
+            }
+            courses.addAll(toAdd);
+            System.out.println("Courses added: " + toAdd.size());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Course> added = JdbcBatch.execute(conn, INSERT_SQL, toAdd,
+                    dbConnection.getBatchSize(), CourseRepository::bindInsert);
+            courses.addAll(added);
+            System.out.println("Courses added: " + added.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding courses: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Write many edited courses in one transaction, sent in batches of db.batchSize rows.
+     * @param toUpdate Courses whose properties have already been changed
+     * @return true if the transaction committed, false if it was rolled back
+     */
+    public boolean updateAll(Collection<Course> toUpdate) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toUpdate.stream().map(course -> Outbox.put(TABLE, course, base)).toList())) {
+                return false;
+            }
+            System.out.println("Courses updated: " + toUpdate.size());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Course> updated = JdbcBatch.execute(conn, UPDATE_SQL, toUpdate,
+                    dbConnection.getBatchSize(), CourseRepository::bindUpdate);
+            System.out.println("Courses updated: " + updated.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error updating courses: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Remove many courses in one transaction, sent in batches of db.batchSize rows.
+     * The observable list loses them as a single change.
+     * @param toRemove Courses to remove
+     * @return true if the transaction committed, false if it was rolled back
+     */
+    public boolean removeAll(Collection<Course> toRemove) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Timestamp base = changes.syncedAt();
+            if (!outbox.add(toRemove.stream().map(course -> Outbox.remove(TABLE, course.getId(), base)).toList())) {
+                return false;
+            }
+            courses.removeAll(new HashSet<>(toRemove));
+            System.out.println("Courses removed: " + toRemove.size());
+            return true;
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            int batchSize = dbConnection.getBatchSize();
+            List<Course> removed = JdbcBatch.inTransaction(conn, () -> {
+                recordCascadedDeletes(conn, toRemove.stream().map(Course::getId).toList(), batchSize);
+                List<Course> deleted = JdbcBatch.execute(conn, DELETE_SQL, toRemove,
+                        batchSize, CourseRepository::bindDelete);
+                changes.recordDeletes(conn, deleted.stream().map(Course::getId).toList(), batchSize);
+                return deleted;
+            });
+            courses.removeAll(new HashSet<>(removed));
+            System.out.println("Courses removed: " + removed.size());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error removing courses: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Write tombstones for the assignments the foreign key will delete along with these
+     * courses; cascaded deletes are invisible to anything watching the assignments table.
+     */
+    static void recordCascadedDeletes(Connection conn, Collection<String> courseIds, int batchSize)
+            throws SQLException {
+        List<String> assignmentIds = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(ASSIGNMENT_IDS_SQL)) {
+            for (String courseId : courseIds) {
+                pstmt.setString(1, courseId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        assignmentIds.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        ChangeTracker.recordDeletes(conn, AssignmentRepository.TABLE, assignmentIds, batchSize);
+    }
+
+    static void bindInsert(PreparedStatement pstmt, Course course) throws SQLException {
+        pstmt.setString(1, course.getId());
+        pstmt.setString(2, course.getName());
+        pstmt.setString(3, course.getDescription());
+        pstmt.setString(4, course.getProfessor());
+        pstmt.setString(5, course.getSemester());
+    }
+
+    private static void bindUpdate(PreparedStatement pstmt, Course course) throws SQLException {
+        pstmt.setString(1, course.getName());
+        pstmt.setString(2, course.getDescription());
+        pstmt.setString(3, course.getProfessor());
+        pstmt.setString(4, course.getSemester());
+        pstmt.setString(5, course.getId());
+    }
+
+    private static void bindDelete(PreparedStatement pstmt, Course course) throws SQLException {
+        pstmt.setString(1, course.getId());
+    }
+
+    /**
+     * Bring the list up to date with the database. Only rows whose updated_at moved since
+     * the last load or refresh are read, and rows other clients deleted are dropped, so
+     * existing Course objects are patched in place. Falls back to a full reload when
+     * nothing has been loaded yet or the last sync is older than the tombstones are kept.
      */
     public void refresh() {
+        if (loaded && refreshChanges()) {
+            return;
+        }
         loadCoursesFromDatabase();
     }
+
+    /**
+     * @return false if the table needs a full reload instead
+     */
+    private boolean refreshChanges() {
+        try (Connection conn = dbConnection.getConnection()) {
+            Timestamp startedAt = ChangeTracker.databaseTime(conn);
+            Timestamp since = changes.changesSince(startedAt);
+            if (since == null) {
+                return false;
+            }
+            Set<String> deletedIds = changes.deletedSince(conn, since);
+            List<Course> changed = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(CHANGED_SINCE_SQL)) {
+                pstmt.setTimestamp(1, since);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(readCourse(rs));
+                    }
+                }
+            }
+            changes.purgeExpired(conn, startedAt);
+
+            applyChanges(changed, deletedIds);
+            changes.synced(startedAt);
+            System.out.println("Refreshed courses: " + changed.size() + " changed, "
+                    + deletedIds.size() + " deleted");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error refreshing courses: " + e.getMessage());
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    /**
+     * Patch the list: copy changed rows onto the objects already shown, add new ones and
+     * remove deleted ones, each as a single change to the list. Rows with writes still in
+     * the outbox keep their local state.
+     */
+    private void applyChanges(List<Course> changed, Set<String> deletedIds) {
+        Outbox outbox = dbConnection.getOutbox();
+        if (outbox != null) {
+            Set<String> pendingIds = outbox.pendingIds(TABLE);
+            changed.removeIf(row -> pendingIds.contains(row.getId()));
+            deletedIds.removeAll(pendingIds);
+        }
+        if (changed.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        Map<String, Course> byId = new HashMap<>(courses.size() * 2);
+        for (Course course : courses) {
+            byId.put(course.getId(), course);
+        }
+
+        List<Course> added = new ArrayList<>();
+        Set<String> changedIds = new HashSet<>();
+        for (Course row : changed) {
+            changedIds.add(row.getId());
+            Course existing = byId.get(row.getId());
+            if (existing == null) {
+                added.add(row);
+                byId.put(row.getId(), row);
+            } else {
+                existing.setName(row.getName());
+                existing.setDescription(row.getDescription());
+                existing.setProfessor(row.getProfessor());
+                existing.setSemester(row.getSemester());
+            }
+        }
+
+        // A row that is back in the table after its tombstone was written stays
+        Set<Course> removed = new HashSet<>();
+        for (String id : deletedIds) {
+            Course existing = byId.get(id);
+            if (existing != null && !changedIds.contains(id)) {
+                removed.add(existing);
+            }
+        }
+
+        courses.addAll(added);
+        courses.removeAll(removed);
+    }
 }
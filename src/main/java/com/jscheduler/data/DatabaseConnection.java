@@ -2,19 +2,37 @@ package com.jscheduler.data;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Singleton class for managing database connections to MariaDB.
+ * Singleton class for managing database connections, either to a MariaDB server or to an
+ * embedded H2 database file, as chosen by db.engine.
+ * Connections come from a pool sized by db.pool.minSize and db.pool.maxSize.
  */
 public class DatabaseConnection {
+    private static final String MARIADB_DRIVER = "org.mariadb.jdbc.Driver";
+    private static final String H2_DRIVER = "org.h2.Driver";
+    private static final String SCHEMA_RESOURCE = "schema.sql";
+    private static final String OUTBOX_FILE = "outbox.jsonl";
+    private static final String OUTBOX_CONFLICTS_FILE = "outbox-conflicts.jsonl";
+
     private static DatabaseConnection instance;
     private String url;
     private String username;
     private String password;
+    private String driverClass = MARIADB_DRIVER;
+    private boolean embedded;
+    private final Properties props = new Properties();
+    private ConnectionPool pool;
+    private Outbox outbox;
+    private OutboxSync outboxSync;
 
     private DatabaseConnection() {
         loadDatabaseProperties();
@@ -28,7 +46,6 @@ public class DatabaseConnection {
     }
 
     private void loadDatabaseProperties() {
-        Properties props = new Properties();
         try (InputStream input = getClass().getClassLoader()
                 .getResourceAsStream("database.properties")) {
             if (input == null) {
@@ -37,15 +54,31 @@ public class DatabaseConnection {
                 return;
             }
             props.load(input);
+            // A JVM system property with the same key takes precedence over the file
+            for (String key : System.getProperties().stringPropertyNames()) {
+                if (key.startsWith("db.")) {
+                    props.setProperty(key, System.getProperty(key));
+                }
+            }
 
-            String host = props.getProperty("db.host", "localhost");
-            String port = props.getProperty("db.port", "3306");
-            String dbName = props.getProperty("db.name", "jscheduler");
-            this.username = props.getProperty("db.username", "root");
-            this.password = props.getProperty("db.password", "");
+            if ("h2".equalsIgnoreCase(props.getProperty("db.engine", "mariadb"))) {
+                // Embedded: one local file, no server or credentials; MySQL mode accepts schema.sql as is
+                String path = props.getProperty("db.h2.path", "~/.jscheduler/jscheduler");
+                this.url = "jdbc:h2:" + path + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+                this.username = "sa";
+                this.password = "";
+                this.driverClass = H2_DRIVER;
+                this.embedded = true;
+            } else {
+                String host = props.getProperty("db.host", "localhost");
+                String port = props.getProperty("db.port", "3306");
+                String dbName = props.getProperty("db.name", "jscheduler");
+                this.username = props.getProperty("db.username", "root");
+                this.password = props.getProperty("db.password", "");
 
-            this.url = String.format("jdbc:mariadb://%s:%s/%s?useSSL=false&allowPublicKeyRetrieval=true",
-                    host, port, dbName);
+                this.url = String.format("jdbc:mariadb://%s:%s/%s?useSSL=false&allowPublicKeyRetrieval=true",
+                        host, port, dbName);
+            }
 
             System.out.println("Database configuration loaded successfully");
         } catch (IOException ex) {
@@ -62,16 +95,180 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get a new database connection.
+     * Borrow a connection from the pool. Closing it returns it to the pool.
      * @return Connection object
-     * @throws SQLException if connection fails
+     * @throws SQLException if connection fails or none is free within db.pool.acquireTimeoutMillis
      */
     public Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    private synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            try {
+                Class.forName(driverClass);
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("JDBC Driver " + driverClass + " not found", e);
+            }
+            ConnectionPool started = new ConnectionPool(url, username, password,
+                    intProperty("db.pool.minSize", 2),
+                    intProperty("db.pool.maxSize", 10),
+                    intProperty("db.pool.acquireTimeoutMillis", 5000),
+                    intProperty("db.pool.idleTimeoutMillis", 300_000),
+                    intProperty("db.pool.validateAfterIdleMillis", 30_000),
+                    intProperty("db.pool.validationTimeoutSeconds", 2));
+            if (embedded) {
+                try {
+                    createSchema(started);
+                } catch (SQLException e) {
+                    started.shutdown();
+                    throw e;
+                }
+            }
+            pool = started;
+            System.out.println("Database connection pool started");
+        }
+        return pool;
+    }
+
+    /**
+     * Create any missing tables from schema.sql. Every statement in it is idempotent, so
+     * this runs on each start; a new embedded database needs no manual setup.
+     */
+    private void createSchema(ConnectionPool target) throws SQLException {
+        String script;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (input == null) {
+                throw new SQLException("Unable to find " + SCHEMA_RESOURCE);
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Error reading " + SCHEMA_RESOURCE, e);
+        }
+
+        StringBuilder statements = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+                statements.append(line).append('\n');
+            }
+        }
+        try (Connection conn = target.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : statements.toString().split(";\\s*\n")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the queue that repository writes go through when db.outbox.enabled is set, starting
+     * its background sync if it is not running. Writes left from the last run are sent first.
+     * @return the outbox, or null if writes go straight to the database: the outbox is
+     *         disabled, the database is embedded, or the outbox file cannot be opened
+     */
+    synchronized Outbox getOutbox() {
+        if (embedded || !Boolean.parseBoolean(props.getProperty("db.outbox.enabled", "false").trim())) {
+            return null;
+        }
+        if (outbox == null) {
+            Path dir = Paths.get(System.getProperty("user.home"), ".jscheduler");
+            try {
+                outbox = new Outbox(dir.resolve(OUTBOX_FILE), dir.resolve(OUTBOX_CONFLICTS_FILE));
+            } catch (IOException e) {
+                System.err.println("Error opening outbox, writing to the database directly: " + e.getMessage());
+                return null;
+            }
+            outboxSync = new OutboxSync(outbox, this, intProperty("db.outbox.retryMillis", 1000),
+                    intProperty("db.outbox.maxRetryMillis", 60_000));
+        }
+        outboxSync.start();
+        return outbox;
+    }
+
+    /**
+     * Get the number of rows sent per JDBC batch by the repositories' bulk methods.
+     * @return batch size from db.batchSize
+     */
+    public int getBatchSize() {
+        return Math.max(1, intProperty("db.batchSize", 100));
+    }
+
+    /**
+     * Get the number of rows fetched per page by the windowed assignment list.
+     * @return page size from db.page.size
+     */
+    public int getPageSize() {
+        return Math.max(1, intProperty("db.page.size", 200));
+    }
+
+    /**
+     * Get how many pages the windowed assignment list keeps in memory.
+     * @return page count from db.page.cached
+     */
+    public int getCachedPages() {
+        return Math.max(2, intProperty("db.page.cached", 10));
+    }
+
+    /**
+     * Get how far before the last sync point a refresh starts reading changes, to catch
+     * rows committed late by slow transactions.
+     * @return overlap from db.sync.overlapSeconds, in milliseconds
+     */
+    public long getSyncOverlapMillis() {
+        return TimeUnit.SECONDS.toMillis(Math.max(0, intProperty("db.sync.overlapSeconds", 5)));
+    }
+
+    /**
+     * Get how long deletions are remembered for other clients. A client that has not
+     * refreshed for longer reloads its tables in full.
+     * @return retention from db.sync.tombstoneRetentionDays, in milliseconds
+     */
+    public long getTombstoneRetentionMillis() {
+        return TimeUnit.DAYS.toMillis(Math.max(1, intProperty("db.sync.tombstoneRetentionDays", 30)));
+    }
+
+    private int intProperty(String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
         try {
-            Class.forName("org.mariadb.jdbc.Driver");
-            return DriverManager.getConnection(url, username, password);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MariaDB JDBC Driver not found", e);
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get the connection pool's counters.
+     * @return pool statistics, or null if no connection has been requested yet
+     */
+    public synchronized PoolStats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    /**
+     * Get the number of writes waiting in the outbox.
+     * @return queued writes, or 0 if the outbox is not in use
+     */
+    public synchronized int getPendingWriteCount() {
+        return outbox != null ? outbox.size() : 0;
+    }
+
+    /**
+     * Stop the outbox sync and close pooled connections; later calls to getConnection start
+     * a new pool. Unsent writes stay in the outbox file for the next start.
+     */
+    public synchronized void shutdown() {
+        if (outboxSync != null) {
+            outboxSync.stop();
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
     }
 
@@ -88,6 +285,13 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * @return true if the database is an embedded file rather than a server
+     */
+    public boolean isEmbedded() {
+        return embedded;
+    }
+
     /**
      * Get the database URL (for debugging).
      * @return database URL
@@ -0,0 +1,100 @@
+package com.jscheduler.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs one prepared statement for many rows as JDBC batches inside a single transaction,
+ * so a bulk change costs one round trip per batch rather than one per row.
+ */
+final class JdbcBatch {
+
+    /**
+     * Sets a statement's parameters from one row.
+     */
+    interface Binder<T> {
+        void bind(PreparedStatement statement, T item) throws SQLException;
+    }
+
+    /**
+     * A unit of database work run by {@link #inTransaction}.
+     */
+    interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private JdbcBatch() {
+    }
+
+    /**
+     * Execute the statement once per item, committing only if every batch succeeds. If the
+     * connection is already in a transaction the work joins it and the caller commits.
+     * @param batchSize rows sent per executeBatch call
+     * @return the items the database reported as changed, in input order
+     * @throws SQLException after rolling back if any batch fails
+     */
+    static <T> List<T> execute(Connection conn, String sql, Collection<? extends T> items, int batchSize,
+                               Binder<? super T> binder) throws SQLException {
+        return inTransaction(conn, () -> {
+            List<T> changed = new ArrayList<>(items.size());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                List<T> pending = new ArrayList<>(Math.min(batchSize, items.size()));
+                for (T item : items) {
+                    binder.bind(pstmt, item);
+                    pstmt.addBatch();
+                    pending.add(item);
+                    if (pending.size() >= batchSize) {
+                        collectChanged(pstmt.executeBatch(), pending, changed);
+                        pending.clear();
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    collectChanged(pstmt.executeBatch(), pending, changed);
+                }
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Run work in one transaction, rolling back if it fails. Joins the caller's transaction
+     * when the connection already has auto-commit off.
+     * @return the work's result
+     * @throws SQLException after rolling back; unchecked exceptions roll back too
+     */
+    static <T> T inTransaction(Connection conn, Work<T> work) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            return work.run();
+        }
+        conn.setAutoCommit(false);
+        try {
+            T result = work.run();
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            // Switching auto-commit back on would otherwise commit the half-done work
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static <T> void collectChanged(int[] counts, List<T> batch, List<T> changed) {
+        for (int i = 0; i < batch.size(); i++) {
+            // Drivers that send the batch as one bulk command may not report per-row counts
+            if (i >= counts.length || counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                changed.add(batch.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.jscheduler.data;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+import com.jscheduler.service.StorageBackend;
+import com.jscheduler.service.StorageBackends;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Stores the semester in the courses and assignments tables. Each change is written as
+ * its own upsert or delete, so saving never rewrites the whole data set; changes saved in
+ * one pass share a transaction and are sent in batches of db.batchSize.
+ *
+ * <p>Deletes leave tombstones like the repositories' deletes do, so clients refreshing
+ * through {@link CourseRepository} and {@link AssignmentRepository} see them.
+ */
+public class JdbcStorageBackend implements StorageBackend {
+    public static final String NAME = StorageBackends.JDBC;
+
+    private static final String COURSE_UPSERT_SQL =
+            "INSERT INTO courses (id, name, description, professor, semester) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), " +
+            "professor = VALUES(professor), semester = VALUES(semester)";
+    private static final String ASSIGNMENT_UPSERT_SQL =
+            "INSERT INTO assignments (id, course_id, title, description, due_date, deadline, status, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE course_id = VALUES(course_id), title = VALUES(title), " +
+            "description = VALUES(description), due_date = VALUES(due_date), deadline = VALUES(deadline), " +
+            "status = VALUES(status), notes = VALUES(notes)";
+    private static final String COURSE_IDS_SQL = "SELECT id FROM courses";
+    private static final String ASSIGNMENT_IDS_SQL = "SELECT id FROM assignments";
+
+    private enum Kind {
+        PUT_COURSE,
+        REMOVE_COURSE,
+        PUT_ASSIGNMENT,
+        REMOVE_ASSIGNMENT
+    }
+
+    /**
+     * A row as it was when the change was made, or the id of a removed row.
+     */
+    private record RowChange(Kind kind, Object row) implements Change {
+    }
+
+    private final DatabaseConnection dbConnection;
+
+    public JdbcStorageBackend() {
+        this(DatabaseConnection.getInstance());
+    }
+
+    JdbcStorageBackend(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Read both tables. The semester takes its name from the first course.
+     * @return the semester, or null if both tables are empty or unreachable
+     */
+    @Override
+    public Semester load(DoubleConsumer progress) {
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Course> courses = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(CourseRepository.SELECT_ALL_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    courses.add(CourseRepository.readCourse(rs));
+                }
+            }
+
+            int total = count(conn, AssignmentRepository.COUNT_SQL);
+            List<Assignment> assignments = new ArrayList<>(total);
+            try (PreparedStatement pstmt = conn.prepareStatement(AssignmentRepository.SELECT_ALL_SQL)) {
+                pstmt.setFetchSize(dbConnection.getPageSize());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    int step = Math.max(1, total / 100);
+                    while (rs.next()) {
+                        assignments.add(AssignmentRepository.readAssignment(rs));
+                        if (assignments.size() % step == 0) {
+                            progress.accept(Math.min(1, (double) assignments.size() / total));
+                        }
+                    }
+                }
+            }
+            progress.accept(1);
+
+            if (courses.isEmpty() && assignments.isEmpty()) {
+                return null;
+            }
+            Semester semester = new Semester(courses.isEmpty() ? null : courses.get(0).getSemester());
+            semester.setCourses(courses);
+            semester.setAssignments(assignments);
+            System.out.println("Loaded " + courses.size() + " courses and " + assignments.size()
+                    + " assignments from database");
+            return semester;
+        } catch (SQLException e) {
+            System.err.println("Error loading from database: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Make the tables match the semester in one transaction: upsert every row, then delete
+     * rows the semester no longer has.
+     */
+    @Override
+    public boolean save(Semester semester) {
+        int batchSize = dbConnection.getBatchSize();
+        try (Connection conn = dbConnection.getConnection()) {
+            JdbcBatch.inTransaction(conn, () -> {
+                JdbcBatch.execute(conn, COURSE_UPSERT_SQL, semester.getCourses(), batchSize,
+                        CourseRepository::bindInsert);
+                JdbcBatch.execute(conn, ASSIGNMENT_UPSERT_SQL, semester.getAssignments(), batchSize,
+                        AssignmentRepository::bindInsert);
+
+                Set<String> assignmentIds = new HashSet<>();
+                for (Assignment assignment : semester.getAssignments()) {
+                    assignmentIds.add(assignment.getId());
+                }
+                Set<String> courseIds = new HashSet<>();
+                for (Course course : semester.getCourses()) {
+                    courseIds.add(course.getId());
+                }
+                removeAssignments(conn, staleIds(conn, ASSIGNMENT_IDS_SQL, assignmentIds), batchSize);
+                removeCourses(conn, staleIds(conn, COURSE_IDS_SQL, courseIds), batchSize);
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving to database: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    public boolean isCompactionDue(int pendingChanges) {
+        return false;
+    }
+
+    @Override
+    public Change courseSaved(Course course) {
+        return new RowChange(Kind.PUT_COURSE, new Course(course.getId(), course.getName(),
+                course.getDescription(), course.getProfessor(), course.getSemester()));
+    }
+
+    @Override
+    public Change courseRemoved(String courseId) {
+        return new RowChange(Kind.REMOVE_COURSE, courseId);
+    }
+
+    @Override
+    public Change assignmentSaved(Assignment assignment) {
+        return new RowChange(Kind.PUT_ASSIGNMENT, new Assignment(assignment.getId(), assignment.getCourseId(),
+                assignment.getTitle(), assignment.getDescription(), assignment.getDueDate(),
+                assignment.getSubmissionDeadline(), assignment.getStatus(), assignment.getNotes()));
+    }
+
+    @Override
+    public Change assignmentRemoved(String assignmentId) {
+        return new RowChange(Kind.REMOVE_ASSIGNMENT, assignmentId);
+    }
+
+    /**
+     * Write the changes in one transaction. Consecutive changes of the same kind go to the
+     * database as one batch.
+     */
+    @Override
+    public boolean apply(List<Change> changes) {
+        int batchSize = dbConnection.getBatchSize();
+        try (Connection conn = dbConnection.getConnection()) {
+            JdbcBatch.inTransaction(conn, () -> {
+                int start = 0;
+                while (start < changes.size()) {
+                    Kind kind = ((RowChange) changes.get(start)).kind();
+                    List<Object> rows = new ArrayList<>();
+                    int end = start;
+                    while (end < changes.size() && ((RowChange) changes.get(end)).kind() == kind) {
+                        rows.add(((RowChange) changes.get(end)).row());
+                        end++;
+                    }
+                    applyRun(conn, kind, rows, batchSize);
+                    start = end;
+                }
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error writing changes to database: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void applyRun(Connection conn, Kind kind, List<?> rows, int batchSize) throws SQLException {
+        switch (kind) {
+            case PUT_COURSE -> JdbcBatch.execute(conn, COURSE_UPSERT_SQL, (List<Course>) rows, batchSize,
+                    CourseRepository::bindInsert);
+            case REMOVE_COURSE -> removeCourses(conn, (List<String>) rows, batchSize);
+            case PUT_ASSIGNMENT -> JdbcBatch.execute(conn, ASSIGNMENT_UPSERT_SQL, (List<Assignment>) rows,
+                    batchSize, AssignmentRepository::bindInsert);
+            case REMOVE_ASSIGNMENT -> removeAssignments(conn, (List<String>) rows, batchSize);
+        }
+    }
+
+    private static void removeCourses(Connection conn, List<String> ids, int batchSize) throws SQLException {
+        CourseRepository.recordCascadedDeletes(conn, ids, batchSize);
+        JdbcBatch.execute(conn, CourseRepository.DELETE_SQL, ids, batchSize, JdbcStorageBackend::bindId);
+        ChangeTracker.recordDeletes(conn, CourseRepository.TABLE, ids, batchSize);
+    }
+
+    private static void removeAssignments(Connection conn, List<String> ids, int batchSize) throws SQLException {
+        JdbcBatch.execute(conn, AssignmentRepository.DELETE_SQL, ids, batchSize, JdbcStorageBackend::bindId);
+        ChangeTracker.recordDeletes(conn, AssignmentRepository.TABLE, ids, batchSize);
+    }
+
+    private static void bindId(PreparedStatement pstmt, String id) throws SQLException {
+        pstmt.setString(1, id);
+    }
+
+    /**
+     * @return ids in the table that are not in the given set
+     */
+    private static List<String> staleIds(Connection conn, String sql, Set<String> keep) throws SQLException {
+        List<String> stale = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                String id = rs.getString(1);
+                if (!keep.contains(id)) {
+                    stale.add(id);
+                }
+            }
+        }
+        return stale;
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Close the connection pool once everything has been written.
+     */
+    @Override
+    public void close() {
+        dbConnection.shutdown();
+    }
+}
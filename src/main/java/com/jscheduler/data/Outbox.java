@@ -0,0 +1,401 @@
+package com.jscheduler.data;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.EntityIds;
+import com.jscheduler.service.SemesterJsonCodec;
+import com.jscheduler.util.LongIntMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Repository writes waiting to reach the database, kept in a file so they survive a
+ * restart. Each write is one JSON line, flushed to disk before the repository reports
+ * success; {@link OutboxSync} sends them in order and removes them once committed.
+ *
+ * <p>An entry carries the row as it was when the change was made and the table's sync
+ * point at that time. A row whose updated_at has moved past that point was changed by
+ * another client in the meantime, and the server's version is kept.
+ */
+final class Outbox {
+
+    enum Op {
+        PUT,
+        REMOVE
+    }
+
+    /**
+     * One queued write. The row is the encoded course or assignment for a put, null for a
+     * removal; base is null when the table had not been loaded, and the write then
+     * overwrites whatever the server has.
+     */
+    record Entry(String table, Op op, String id, String row, Timestamp base) {
+
+        Course course() {
+            return decode(row, SemesterJsonCodec::readCourse);
+        }
+
+        Assignment assignment() {
+            return decode(row, SemesterJsonCodec::readAssignment);
+        }
+    }
+
+    /**
+     * Told about each batch after it has been committed, on the sync thread.
+     */
+    interface Listener {
+        /**
+         * @param written entries now in the database
+         * @param discarded entries dropped because the server's row had changed, or that
+         *                  the database refused; they are kept in the conflicts file
+         */
+        void synced(List<Entry> written, List<Entry> discarded);
+    }
+
+    private interface RowReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    private interface RowWriter<T> {
+        void write(JsonWriter out, T row) throws IOException;
+    }
+
+    private final Path path;
+    private final Path conflictsPath;
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Open the outbox, picking up writes left over from the last run.
+     * @param path file holding the queued writes
+     * @param conflictsPath file that discarded writes are appended to
+     */
+    Outbox(Path path, Path conflictsPath) throws IOException {
+        this.path = path;
+        this.conflictsPath = conflictsPath;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            boolean torn = false;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        pending.add(parse(line));
+                    } catch (IOException | RuntimeException e) {
+                        // Only the last line can be torn, by a crash while it was written
+                        System.err.println("Skipping unreadable outbox entry: " + e.getMessage());
+                        torn = true;
+                    }
+                }
+            }
+            if (torn) {
+                // Otherwise the next entry would be appended to the end of the torn line
+                rewrite();
+            }
+            if (!pending.isEmpty()) {
+                System.out.println("Loaded " + pending.size() + " unsynced changes from " + path);
+            }
+        }
+    }
+
+    static Entry put(String table, Course course, Timestamp base) {
+        return new Entry(table, Op.PUT, course.getId(), encode(course, SemesterJsonCodec::writeCourse), base);
+    }
+
+    static Entry put(String table, Assignment assignment, Timestamp base) {
+        return new Entry(table, Op.PUT, assignment.getId(),
+                encode(assignment, SemesterJsonCodec::writeAssignment), base);
+    }
+
+    static Entry remove(String table, String id, Timestamp base) {
+        return new Entry(table, Op.REMOVE, id, null, base);
+    }
+
+    /**
+     * Queue writes, returning once they are on disk. A write to a row that already has one
+     * queued takes that write's base, since the local row has not been compared with the
+     * server's since then.
+     * @return false if the file could not be written; nothing is queued then
+     */
+    synchronized boolean add(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        Map<String, Entry> earliest = new HashMap<>();
+        for (Entry entry : pending) {
+            earliest.putIfAbsent(entry.table() + '/' + entry.id(), entry);
+        }
+        List<Entry> queued = new ArrayList<>(entries.size());
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : entries) {
+            Entry first = earliest.putIfAbsent(entry.table() + '/' + entry.id(), entry);
+            if (first != null && !Objects.equals(first.base(), entry.base())) {
+                entry = new Entry(entry.table(), entry.op(), entry.id(), entry.row(), first.base());
+            }
+            queued.add(entry);
+            lines.append(format(entry)).append('\n');
+        }
+        try {
+            append(path, lines.toString());
+        } catch (IOException e) {
+            System.err.println("Error writing outbox: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        pending.addAll(queued);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Wait until something is queued.
+     * @return up to max of the oldest entries, still queued until {@link #acknowledge}
+     */
+    synchronized List<Entry> awaitBatch(int max) throws InterruptedException {
+        while (pending.isEmpty()) {
+            wait();
+        }
+        List<Entry> batch = new ArrayList<>(Math.min(max, pending.size()));
+        for (Entry entry : pending) {
+            if (batch.size() >= max) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Drop the oldest entries once the database has them, rewriting the file with the rest.
+     */
+    synchronized void acknowledge(int count) throws IOException {
+        for (int i = 0; i < count && !pending.isEmpty(); i++) {
+            pending.removeFirst();
+        }
+        rewrite();
+    }
+
+    private void rewrite() throws IOException {
+        if (pending.isEmpty()) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : pending) {
+            lines.append(format(entry)).append('\n');
+        }
+        Files.deleteIfExists(temp);
+        append(temp, lines.toString());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Keep a write that will not be sent, with the reason, so it can be recovered by hand.
+     */
+    void recordDiscarded(Entry entry, String reason) {
+        StringWriter line = new StringWriter();
+        try (JsonWriter out = new JsonWriter(line)) {
+            out.beginObject();
+            out.name("discardedAt").value(System.currentTimeMillis());
+            out.name("reason").value(reason);
+            out.name("change");
+            out.jsonValue(format(entry));
+            out.endObject();
+            append(conflictsPath, line + "\n");
+        } catch (IOException e) {
+            System.err.println("Error writing outbox conflicts: " + e.getMessage());
+        }
+        System.err.println("Discarded change to " + entry.table() + " row " + entry.id() + ": " + reason);
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return ids in the table with writes still queued
+     */
+    synchronized Set<String> pendingIds(String table) {
+        Set<String> ids = new HashSet<>();
+        for (Entry entry : pending) {
+            if (entry.table().equals(table)) {
+                ids.add(entry.id());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Apply the queued writes for a table to rows just read from the database, so a load
+     * shows local changes that have not reached it yet. Rows keep their positions; added
+     * rows go at the end. Rows are matched by numeric key, so their ids are not formatted.
+     * @param idPrefix the table's id prefix, for parsing the queued ids; see {@link EntityIds}
+     */
+    <T> void overlay(String table, char idPrefix, List<T> rows, ToLongFunction<T> keyOf,
+                     Function<Entry, T> decoder) {
+        List<Entry> entries;
+        synchronized (this) {
+            entries = pending.stream().filter(entry -> entry.table().equals(table)).toList();
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        LongIntMap positions = new LongIntMap(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            positions.put(keyOf.applyAsLong(rows.get(i)), i);
+        }
+        List<T> added = new ArrayList<>();
+        Map<String, T> addedById = new HashMap<>();
+        for (Entry entry : entries) {
+            long key = EntityIds.parse(idPrefix, entry.id());
+            int position = positions.get(key);
+            if (entry.op() == Op.PUT) {
+                T row = decoder.apply(entry);
+                if (position != LongIntMap.MISSING) {
+                    rows.set(position, row);
+                } else {
+                    T previous = addedById.put(entry.id(), row);
+                    if (previous != null) {
+                        added.set(added.indexOf(previous), row);
+                    } else {
+                        added.add(row);
+                    }
+                }
+            } else if (position != LongIntMap.MISSING) {
+                positions.remove(key);
+                rows.set(position, null);
+            } else {
+                T previous = addedById.remove(entry.id());
+                if (previous != null) {
+                    added.remove(previous);
+                }
+            }
+        }
+        rows.removeIf(Objects::isNull);
+        rows.addAll(added);
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void fireSynced(List<Entry> written, List<Entry> discarded) {
+        for (Listener listener : listeners) {
+            listener.synced(written, discarded);
+        }
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static String format(Entry entry) {
+        StringWriter line = new StringWriter();
+        try (JsonWriter out = new JsonWriter(line)) {
+            out.beginObject();
+            out.name("table").value(entry.table());
+            out.name("op").value(entry.op().name());
+            out.name("id").value(entry.id());
+            out.name("base").value(entry.base() != null ? entry.base().getTime() : null);
+            if (entry.row() != null) {
+                out.name("row");
+                out.jsonValue(entry.row());
+            }
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toString();
+    }
+
+    private static Entry parse(String line) throws IOException {
+        String table = null;
+        Op op = null;
+        String id = null;
+        String row = null;
+        Timestamp base = null;
+        try (JsonReader in = new JsonReader(new StringReader(line))) {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "table" -> table = in.nextString();
+                    case "op" -> op = Op.valueOf(in.nextString());
+                    case "id" -> id = in.nextString();
+                    case "base" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            base = new Timestamp(in.nextLong());
+                        }
+                    }
+                    case "row" -> row = JsonParser.parseReader(in).toString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        if (table == null || op == null || id == null || (op == Op.PUT && row == null)) {
+            throw new JsonParseException("incomplete entry");
+        }
+        return new Entry(table, op, id, row, base);
+    }
+
+    private static <T> String encode(T row, RowWriter<T> writer) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.setSerializeNulls(true);
+            writer.write(out, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    private static <T> T decode(String json, RowReader<T> reader) {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.jscheduler.data;
+
+import com.jscheduler.data.Outbox.Entry;
+import com.jscheduler.data.Outbox.Op;
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the outbox to the database on a background thread. Up to db.batchSize queued
+ * writes go in one transaction, each run of puts or removals for one table as one JDBC
+ * batch. When the database cannot be reached the batch is retried after a delay that
+ * doubles from db.outbox.retryMillis up to db.outbox.maxRetryMillis.
+ *
+ * <p>Rows are stamped with the transaction's database time, which is remembered, so the
+ * next write to the same row is compared with the version this client wrote rather than
+ * the one it last read. A write whose row changed on the server after its base, or was
+ * deleted there, is not sent: the server's version stays and the write is kept in the
+ * conflicts file. So is a write the database refuses, such as an assignment whose course
+ * no longer exists.
+ */
+final class OutboxSync {
+    private static final String COURSE_PUT_SQL =
+            "INSERT INTO courses (id, name, description, professor, semester, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), " +
+            "professor = VALUES(professor), semester = VALUES(semester), updated_at = VALUES(updated_at)";
+    private static final String ASSIGNMENT_PUT_SQL =
+            "INSERT INTO assignments (id, course_id, title, description, due_date, deadline, status, notes, " +
+            "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE course_id = VALUES(course_id), title = VALUES(title), " +
+            "description = VALUES(description), due_date = VALUES(due_date), deadline = VALUES(deadline), " +
+            "status = VALUES(status), notes = VALUES(notes), updated_at = VALUES(updated_at)";
+    private static final String TOMBSTONES_SQL =
+            "SELECT row_id, deleted_at FROM deleted_rows WHERE table_name = ? AND row_id IN ";
+
+    private final Outbox outbox;
+    private final DatabaseConnection dbConnection;
+    private final long retryMillis;
+    private final long maxRetryMillis;
+    // updated_at this client gave each row it wrote, keyed by table/id
+    private final Map<String, Timestamp> written = new ConcurrentHashMap<>();
+    private Thread thread;
+
+    OutboxSync(Outbox outbox, DatabaseConnection dbConnection, long retryMillis, long maxRetryMillis) {
+        this.outbox = outbox;
+        this.dbConnection = dbConnection;
+        this.retryMillis = Math.max(1, retryMillis);
+        this.maxRetryMillis = Math.max(this.retryMillis, maxRetryMillis);
+    }
+
+    synchronized void start() {
+        if (thread == null || !thread.isAlive()) {
+            thread = Thread.ofVirtual().name("jscheduler-outbox-sync").start(this::run);
+        }
+    }
+
+    /**
+     * Stop after the current batch. Queued writes stay in the outbox file.
+     */
+    synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        long delay = retryMillis;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Entry> batch = outbox.awaitBatch(dbConnection.getBatchSize());
+                if (send(batch)) {
+                    delay = retryMillis;
+                } else {
+                    Thread.sleep(delay);
+                    delay = Math.min(delay * 2, maxRetryMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped; anything unsent is picked up from the file on the next start
+        }
+    }
+
+    /**
+     * Write a batch, falling back to one entry per transaction to single out a write the
+     * database refuses.
+     * @return false if the database could not be reached and the batch should be retried
+     */
+    private boolean send(List<Entry> batch) {
+        try {
+            try {
+                commit(batch);
+            } catch (SQLException e) {
+                if (!isRefused(e)) {
+                    throw e;
+                }
+                for (Entry entry : batch) {
+                    try {
+                        commit(List.of(entry));
+                    } catch (SQLException refused) {
+                        if (!isRefused(refused)) {
+                            throw refused;
+                        }
+                        outbox.recordDiscarded(entry, "refused by the database: " + refused.getMessage());
+                        outbox.fireSynced(List.of(), List.of(entry));
+                        outbox.acknowledge(1);
+                    }
+                }
+            }
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("Error syncing " + outbox.size() + " queued changes to database: "
+                    + e.getMessage());
+            return false;
+        }
+    }
+
+    private void commit(List<Entry> batch) throws SQLException, IOException {
+        Map<String, Timestamp> stamped = new HashMap<>();
+        List<Entry> discarded = new ArrayList<>();
+        try (Connection conn = dbConnection.getConnection()) {
+            JdbcBatch.inTransaction(conn, () -> {
+                Timestamp now = ChangeTracker.databaseTime(conn);
+                int start = 0;
+                while (start < batch.size()) {
+                    Entry first = batch.get(start);
+                    int end = start;
+                    while (end < batch.size() && batch.get(end).table().equals(first.table())
+                            && batch.get(end).op() == first.op()) {
+                        end++;
+                    }
+                    sendRun(conn, first.table(), first.op(), batch.subList(start, end), now, stamped, discarded);
+                    start = end;
+                }
+                return null;
+            });
+        }
+        written.putAll(stamped);
+        for (Entry entry : discarded) {
+            outbox.recordDiscarded(entry, conflictReason(entry));
+        }
+        List<Entry> sent = new ArrayList<>(batch);
+        sent.removeAll(discarded);
+        // Listeners run while the entries still count as pending, so a refresh that sees the
+        // outbox empty also sees what the listeners did
+        outbox.fireSynced(sent, discarded);
+        outbox.acknowledge(batch.size());
+    }
+
+    /**
+     * Write a run of puts or removals for one table, skipping those that conflict with
+     * the server's rows.
+     */
+    private void sendRun(Connection conn, String table, Op op, List<Entry> run, Timestamp now,
+                         Map<String, Timestamp> stamped, List<Entry> discarded) throws SQLException {
+        boolean courses = table.equals(CourseRepository.TABLE);
+        if (!courses && !table.equals(AssignmentRepository.TABLE)) {
+            discarded.addAll(run);
+            return;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (Entry entry : run) {
+            ids.add(entry.id());
+        }
+        Map<String, Timestamp> versions = query(conn, "SELECT id, updated_at FROM " + table + " WHERE id IN ",
+                null, ids);
+        Map<String, Timestamp> tombstones = query(conn, TOMBSTONES_SQL, table, ids);
+
+        List<Object> puts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        for (Entry entry : run) {
+            String key = table + '/' + entry.id();
+            Timestamp base = entry.base() == null ? null
+                    : latest(entry.base(), stamped.containsKey(key) ? stamped.get(key) : written.get(key));
+            Timestamp current = versions.get(entry.id());
+            Timestamp deletedAt = tombstones.get(entry.id());
+            if (base != null && (current != null ? current.after(base)
+                    : deletedAt != null && deletedAt.after(base))) {
+                discarded.add(entry);
+                continue;
+            }
+            if (op == Op.PUT) {
+                try {
+                    puts.add(courses ? entry.course() : entry.assignment());
+                } catch (RuntimeException e) {
+                    discarded.add(entry);
+                    continue;
+                }
+                versions.put(entry.id(), now);
+            } else if (current != null) {
+                removals.add(entry.id());
+                versions.remove(entry.id());
+                tombstones.put(entry.id(), now);
+            }
+            stamped.put(key, now);
+        }
+
+        int batchSize = dbConnection.getBatchSize();
+        if (!puts.isEmpty()) {
+            if (courses) {
+                JdbcBatch.execute(conn, COURSE_PUT_SQL, puts, batchSize, (pstmt, row) -> {
+                    CourseRepository.bindInsert(pstmt, (Course) row);
+                    pstmt.setTimestamp(6, now);
+                });
+            } else {
+                JdbcBatch.execute(conn, ASSIGNMENT_PUT_SQL, puts, batchSize, (pstmt, row) -> {
+                    AssignmentRepository.bindInsert(pstmt, (Assignment) row);
+                    pstmt.setTimestamp(9, now);
+                });
+            }
+        }
+        if (!removals.isEmpty()) {
+            if (courses) {
+                CourseRepository.recordCascadedDeletes(conn, removals, batchSize);
+            }
+            JdbcBatch.execute(conn, courses ? CourseRepository.DELETE_SQL : AssignmentRepository.DELETE_SQL,
+                    removals, batchSize, (pstmt, id) -> pstmt.setString(1, id));
+            ChangeTracker.recordDeletes(conn, table, removals, batchSize, now);
+        }
+    }
+
+    private String conflictReason(Entry entry) {
+        if (entry.op() == Op.PUT && entry.row() != null) {
+            try {
+                if (entry.table().equals(CourseRepository.TABLE)) {
+                    entry.course();
+                } else if (entry.table().equals(AssignmentRepository.TABLE)) {
+                    entry.assignment();
+                } else {
+                    return "unknown table";
+                }
+            } catch (RuntimeException e) {
+                return "unreadable row: " + e.getMessage();
+            }
+        }
+        return "row changed or deleted on the server after " + entry.base();
+    }
+
+    /**
+     * Run a query selecting (id, timestamp) pairs for the given ids.
+     * @param sql the query up to its IN list
+     * @param table bound as the first parameter if not null
+     */
+    private static Map<String, Timestamp> query(Connection conn, String sql, String table,
+                                                Collection<String> ids) throws SQLException {
+        StringBuilder in = new StringBuilder(sql).append('(');
+        for (int i = 0; i < ids.size(); i++) {
+            in.append(i == 0 ? "?" : ", ?");
+        }
+        in.append(')');
+        Map<String, Timestamp> result = new HashMap<>(ids.size() * 2);
+        try (PreparedStatement pstmt = conn.prepareStatement(in.toString())) {
+            int index = 1;
+            if (table != null) {
+                pstmt.setString(index++, table);
+            }
+            for (String id : ids) {
+                pstmt.setString(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getString(1), rs.getTimestamp(2));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Timestamp latest(Timestamp a, Timestamp b) {
+        return b == null || a.after(b) ? a : b;
+    }
+
+    /**
+     * @return true if the database rejected the data itself, so retrying cannot help
+     */
+    private static boolean isRefused(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,278 @@
+package com.jscheduler.data;
+
+import com.jscheduler.model.Assignment;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A read-only window onto the assignments table in (due_date, id) order. Only the size is
+ * known up front; rows are fetched a page at a time when a {@link javafx.scene.control.TableView}
+ * asks for them, and at most a fixed number of pages are kept.
+ *
+ * <p>Pages are read with keyset seeks on idx_due_date from the edge of a neighbouring page
+ * seen earlier, so scrolling costs the same near the end of the table as at the start. A
+ * jump to an unvisited region first finds its boundary key with an index-only OFFSET probe.
+ *
+ * <p>Fetches run on a background thread, newest request first. Until its page arrives a row
+ * reads as null; the list then reports the rows as replaced so the table redraws them.
+ */
+public class PagedAssignmentList extends ObservableListBase<Assignment> {
+    private static final String COLUMNS = "SELECT id, course_id, title, description, due_date, deadline, status, notes "
+            + "FROM assignments ";
+    private static final String FIRST_PAGE = COLUMNS + "ORDER BY due_date ASC, id ASC LIMIT ?";
+    private static final String PAGE_AFTER = COLUMNS
+            + "WHERE due_date > ? OR (due_date = ? AND id > ?) ORDER BY due_date ASC, id ASC LIMIT ?";
+    private static final String PAGE_BEFORE = COLUMNS
+            + "WHERE due_date < ? OR (due_date = ? AND id < ?) ORDER BY due_date DESC, id DESC LIMIT ?";
+    private static final String KEY_AT = "SELECT due_date, id FROM assignments ORDER BY due_date ASC, id ASC LIMIT 1 OFFSET ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM assignments";
+
+    private record Key(LocalDate dueDate, String id) {
+    }
+
+    private record Page(List<Assignment> rows) {
+    }
+
+    private final DatabaseConnection dbConnection;
+    private final int pageSize;
+    private final Executor fxExecutor;
+    private final ExecutorService fetcher;
+
+    // Touched on the FX thread only
+    private final Map<Integer, Page> pages;
+    private int size;
+    private Generation generation;
+
+    /**
+     * Fetch bookkeeping shared with the fetch thread. Replaced wholesale by invalidate(), so
+     * work started against an older table state can never leak into the current one.
+     */
+    private static final class Generation {
+        final Deque<Integer> requested = new ConcurrentLinkedDeque<>();
+        final Map<Integer, Boolean> inFlight = new ConcurrentHashMap<>();
+        final Map<Integer, Key> firstKeys = new ConcurrentHashMap<>();
+        final Map<Integer, Key> lastKeys = new ConcurrentHashMap<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+    }
+
+    PagedAssignmentList(DatabaseConnection dbConnection, int pageSize, int cachedPages) {
+        this(dbConnection, pageSize, cachedPages, Platform::runLater);
+    }
+
+    PagedAssignmentList(DatabaseConnection dbConnection, int pageSize, int cachedPages, Executor fxExecutor) {
+        this.dbConnection = dbConnection;
+        this.pageSize = Math.max(1, pageSize);
+        this.fxExecutor = fxExecutor;
+        int maxPages = Math.max(2, cachedPages);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                return size() > maxPages;
+            }
+        };
+        this.fetcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "jscheduler-page-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        invalidate();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the row, or null while its page is being fetched
+     */
+    @Override
+    public Assignment get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int pageNumber = index / pageSize;
+        Page page = pages.get(pageNumber);
+        if (page == null) {
+            request(pageNumber);
+            return null;
+        }
+        int offset = index - pageNumber * pageSize;
+        return offset < page.rows().size() ? page.rows().get(offset) : null;
+    }
+
+    /**
+     * Drop every cached page and re-read the row count, after the table has changed.
+     */
+    public void invalidate() {
+        generation = new Generation();
+        pages.clear();
+        Generation expected = generation;
+        fetcher.execute(() -> {
+            int count;
+            try (Connection conn = dbConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(COUNT);
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                count = rs.getInt(1);
+            } catch (SQLException e) {
+                System.err.println("Error counting assignments: " + e.getMessage());
+                return;
+            }
+            fxExecutor.execute(() -> resize(expected, count));
+        });
+    }
+
+    private void resize(Generation expected, int count) {
+        if (expected != generation) {
+            return;
+        }
+        int oldSize = size;
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, null));
+        }
+        size = count;
+        if (count > 0) {
+            nextAdd(0, count);
+        }
+        endChange();
+        System.out.println("Windowing " + count + " assignments from database");
+    }
+
+    private void request(int pageNumber) {
+        Generation current = generation;
+        if (current.inFlight.putIfAbsent(pageNumber, Boolean.TRUE) != null) {
+            return;
+        }
+        current.requested.addFirst(pageNumber);
+        if (current.draining.compareAndSet(false, true)) {
+            fetcher.execute(() -> drain(current));
+        }
+    }
+
+    /**
+     * Fetch requested pages newest first, so a fast scroll does not wait behind pages that
+     * have already gone off screen.
+     */
+    private void drain(Generation current) {
+        while (true) {
+            Integer pageNumber;
+            while ((pageNumber = current.requested.pollFirst()) != null) {
+                int number = pageNumber;
+                try {
+                    Page page = fetch(current, number);
+                    fxExecutor.execute(() -> deliver(current, number, page));
+                } catch (SQLException e) {
+                    System.err.println("Error loading assignment page " + number + ": " + e.getMessage());
+                    current.inFlight.remove(number);
+                }
+            }
+            current.draining.set(false);
+            if (current.requested.isEmpty() || !current.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(Generation expected, int pageNumber, Page page) {
+        expected.inFlight.remove(pageNumber);
+        if (expected != generation) {
+            return;
+        }
+        pages.put(pageNumber, page);
+        int from = pageNumber * pageSize;
+        int to = Math.min(size, from + pageSize);
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, null));
+            endChange();
+        }
+    }
+
+    private Page fetch(Generation current, int pageNumber) throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Assignment> rows;
+            Key after = pageNumber == 0 ? null : current.lastKeys.get(pageNumber - 1);
+            Key before = current.firstKeys.get(pageNumber + 1);
+            if (pageNumber == 0) {
+                rows = query(conn, FIRST_PAGE, null);
+            } else if (after != null) {
+                rows = query(conn, PAGE_AFTER, after);
+            } else if (before != null) {
+                rows = query(conn, PAGE_BEFORE, before);
+                Collections.reverse(rows);
+            } else {
+                Key boundary = keyAt(conn, pageNumber * pageSize - 1);
+                rows = boundary != null ? query(conn, PAGE_AFTER, boundary) : new ArrayList<>();
+            }
+            if (!rows.isEmpty()) {
+                current.firstKeys.put(pageNumber, keyOf(rows.get(0)));
+                current.lastKeys.put(pageNumber, keyOf(rows.get(rows.size() - 1)));
+            }
+            return new Page(rows);
+        }
+    }
+
+    private List<Assignment> query(Connection conn, String sql, Key key) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int param = 1;
+            if (key != null) {
+                Date dueDate = Date.valueOf(key.dueDate());
+                pstmt.setDate(param++, dueDate);
+                pstmt.setDate(param++, dueDate);
+                pstmt.setString(param++, key.id());
+            }
+            pstmt.setInt(param, pageSize);
+            List<Assignment> rows = new ArrayList<>(pageSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(AssignmentRepository.readAssignment(rs));
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Read only the key columns, which idx_due_date covers, at an absolute row position.
+     */
+    private Key keyAt(Connection conn, int offset) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(KEY_AT)) {
+            pstmt.setInt(1, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new Key(rs.getDate(1).toLocalDate(), rs.getString(2)) : null;
+            }
+        }
+    }
+
+    private static Key keyOf(Assignment assignment) {
+        return new Key(assignment.getDueDate(), assignment.getId());
+    }
+
+    /**
+     * Stop the background fetch thread.
+     */
+    public void close() {
+        fetcher.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.jscheduler.data;
+
+/**
+ * Point-in-time counters of the database connection pool.
+ *
+ * @param open            physical connections currently open
+ * @param active          connections borrowed and not yet returned
+ * @param idle            open connections waiting to be borrowed
+ * @param waiting         callers blocked waiting for a connection
+ * @param maxSize         configured upper bound on open connections
+ * @param acquisitions    successful borrows since startup
+ * @param timeouts        borrows that gave up after the acquire timeout
+ * @param averageWaitMillis mean time a successful borrow took
+ * @param created         physical connections opened since startup
+ * @param evicted         connections closed for sitting idle too long
+ * @param discarded       connections dropped after failing validation, reset or a connection error
+ */
+public record PoolStats(int open, int active, int idle, int waiting, int maxSize,
+                        long acquisitions, long timeouts, double averageWaitMillis,
+                        long created, long evicted, long discarded) {
+
+    @Override
+    public String toString() {
+        return String.format("pool %d/%d open (%d active, %d idle, %d waiting), %d borrows, "
+                        + "avg wait %.2f ms, %d timeouts, %d created, %d evicted, %d discarded",
+                open, maxSize, active, idle, waiting, acquisitions, averageWaitMillis, timeouts,
+                created, evicted, discarded);
+    }
+}
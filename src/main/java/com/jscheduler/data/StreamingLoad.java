@@ -0,0 +1,101 @@
+package com.jscheduler.data;
+
+import com.jscheduler.util.FxThreads;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a whole table on a background thread and hands the rows to an observable list in
+ * batches on the FX thread, so a table bound to the list fills in while the query runs.
+ */
+final class StreamingLoad {
+
+    /**
+     * Maps the current row of a result set.
+     */
+    interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    private StreamingLoad() {
+    }
+
+    /**
+     * Start loading. The target list is cleared before the first batch arrives; once the
+     * task succeeds it holds every row, in query order.
+     * @param countSql query returning the number of rows, used for progress
+     * @param sql query selecting the rows
+     * @param batchSize rows fetched per round trip and published per FX update
+     * @param name what is being loaded, for messages
+     * @param tracker told the load's start time once every row has been read
+     * @param onLoaded run on the FX thread after the last batch has been published
+     * @return the running task; its value is the number of rows loaded
+     */
+    static <T> Task<Integer> start(DatabaseConnection dbConnection, String countSql, String sql,
+                                   RowReader<T> reader, ObservableList<T> target, int batchSize,
+                                   String name, ChangeTracker tracker, Runnable onLoaded) {
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws SQLException, InterruptedException {
+                updateMessage("Loading " + name + "\u2026");
+                try (Connection conn = dbConnection.getConnection()) {
+                    Timestamp startedAt = ChangeTracker.databaseTime(conn);
+                    int total = count(conn, countSql);
+                    FxThreads.runAndWait(target::clear);
+
+                    int loaded = 0;
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        // Lets drivers that support it stream the result instead of buffering it all
+                        pstmt.setFetchSize(batchSize);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            List<T> batch = new ArrayList<>(batchSize);
+                            while (rs.next() && !isCancelled()) {
+                                batch.add(reader.read(rs));
+                                if (batch.size() >= batchSize) {
+                                    loaded += publish(batch);
+                                    batch = new ArrayList<>(batchSize);
+                                    updateProgress(loaded, Math.max(total, loaded));
+                                }
+                            }
+                            loaded += publish(batch);
+                        }
+                    }
+                    if (!isCancelled()) {
+                        FxThreads.runAndWait(onLoaded);
+                        tracker.synced(startedAt);
+                    }
+                    updateProgress(1, 1);
+                    updateMessage("Loaded " + loaded + " " + name);
+                    System.out.println("Loaded " + loaded + " " + name + " from database");
+                    return loaded;
+                }
+            }
+
+            private int publish(List<T> batch) throws InterruptedException {
+                if (!batch.isEmpty()) {
+                    FxThreads.runAndWait(() -> target.addAll(batch));
+                }
+                return batch.size();
+            }
+        };
+        task.setOnFailed(e -> System.err.println("Error loading " + name + " from database: "
+                + task.getException().getMessage()));
+        Thread.ofVirtual().name("jscheduler-db-loader").start(task);
+        return task;
+    }
+
+    private static int count(Connection conn, String countSql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(countSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
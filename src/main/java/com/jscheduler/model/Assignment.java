@@ -1,149 +1,307 @@
 package com.jscheduler.model;
 
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import java.time.LocalDate;
-import java.util.UUID;
-
+import java.util.Objects;
+
+/**
+ * An assignment's fields are plain values. The JavaFX property for a field is made the
+ * first time it is asked for, typically by a table cell or a binding, and from then on
+ * setting either one sets the other. Indexes watch rows through {@link AssignmentObserver}
+ * instead, so rows that never reach the UI carry no properties at all. The id is held as a
+ * number and formatted when asked for, except an id of another form, whose text is kept;
+ * see {@link EntityIds}.
+ */
 public class Assignment {
-    private final StringProperty id;
-    private final StringProperty courseId;
-    private final StringProperty title;
-    private final StringProperty description;
-    private final ObjectProperty<LocalDate> dueDate;
-    private final ObjectProperty<LocalDate> submissionDeadline;
-    private final ObjectProperty<AssignmentStatus> status;
-    private final StringProperty notes;
+    /**
+     * The fields that can change, as reported to observers.
+     */
+    public enum Field {
+        COURSE_ID("courseId"),
+        TITLE("title"),
+        DESCRIPTION("description"),
+        DUE_DATE("dueDate"),
+        SUBMISSION_DEADLINE("submissionDeadline"),
+        STATUS("status"),
+        NOTES("notes"),
+        COURSE_NAME("courseName");
+
+        private static final int COUNT = values().length;
+        // The id's property goes in the slot after the fields'
+        private static final int ID_SLOT = COUNT;
+
+        private final String propertyName;
+
+        Field(String propertyName) {
+            this.propertyName = propertyName;
+        }
+    }
+
+    // The string form is made when asked for; see EntityIds
+    private final long id;
+    // Null unless the id has no canonical form
+    private final String otherId;
+    private String courseId;
+    private String title;
+    private String description;
+    private LocalDate dueDate;
+    private LocalDate submissionDeadline;
+    private AssignmentStatus status;
+    private String notes;
 
-    private final StringProperty courseName;
+    private String courseName;
+
+    private AssignmentObservers observers = AssignmentObservers.NONE;
+    // Indexed by Field ordinal, then the id's; null until the first property is asked for
+    private Property<?>[] properties;
 
     public Assignment(String courseId, String title, String description,
                      LocalDate dueDate, LocalDate submissionDeadline,
                      AssignmentStatus status, String notes) {
-        this(generateId(), courseId, title, description, dueDate, submissionDeadline, status, notes);
+        this(EntityIds.generate(), null, courseId, title, description, dueDate, submissionDeadline, status, notes);
     }
 
     public Assignment(String id, String courseId, String title, String description,
                      LocalDate dueDate, LocalDate submissionDeadline,
                      AssignmentStatus status, String notes) {
-        this.id = new SimpleStringProperty(id);
-        this.courseId = new SimpleStringProperty(courseId);
-        this.title = new SimpleStringProperty(title);
-        this.description = new SimpleStringProperty(description);
-        this.dueDate = new SimpleObjectProperty<>(dueDate);
-        this.submissionDeadline = new SimpleObjectProperty<>(submissionDeadline);
-        this.status = new SimpleObjectProperty<>(status != null ? status : AssignmentStatus.NOT_STARTED);
-        this.notes = new SimpleStringProperty(notes);
-        this.courseName = new SimpleStringProperty("");
+        this(EntityIds.parse(EntityIds.ASSIGNMENT, id), id, courseId, title, description, dueDate,
+                submissionDeadline, status, notes);
+    }
+
+    private Assignment(long id, String idText, String courseId, String title, String description,
+                       LocalDate dueDate, LocalDate submissionDeadline,
+                       AssignmentStatus status, String notes) {
+        this.id = id;
+        this.otherId = EntityIds.isFormattable(id) ? null : idText;
+        this.courseId = courseId;
+        this.title = title;
+        this.description = description;
+        this.dueDate = dueDate;
+        this.submissionDeadline = submissionDeadline;
+        this.status = status != null ? status : AssignmentStatus.NOT_STARTED;
+        this.notes = notes;
+        this.courseName = "";
     }
 
-    private static String generateId() {
-        return "a_" + UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * Watch this assignment's fields. An observer added twice is told twice.
+     */
+    public void addObserver(AssignmentObserver observer) {
+        observers = observers.with(observer);
+    }
+
+    public void removeObserver(AssignmentObserver observer) {
+        observers = observers.without(observer);
     }
 
     public StringProperty idProperty() {
-        return id;
+        Property<?>[] made = properties();
+        if (made[Field.ID_SLOT] == null) {
+            made[Field.ID_SLOT] = new IdProperty(this, getId());
+        }
+        return (StringProperty) made[Field.ID_SLOT];
+    }
+
+    /**
+     * @return a copy of the fields, without observers or properties, for another thread to
+     *         read while this one keeps changing
+     */
+    Assignment copy() {
+        Assignment copy = new Assignment(id, otherId, courseId, title, description, dueDate,
+                submissionDeadline, status, notes);
+        copy.courseName = courseName;
+        return copy;
     }
 
     public String getId() {
-        return id.get();
+        return otherId != null ? otherId : EntityIds.format(EntityIds.ASSIGNMENT, id);
+    }
+
+    /**
+     * @return the id as a number, for keying indexes without hashing its string form
+     */
+    public long getKey() {
+        return id;
     }
 
     public StringProperty courseIdProperty() {
-        return courseId;
+        return stringProperty(Field.COURSE_ID);
     }
 
     public String getCourseId() {
-        return courseId.get();
+        return courseId;
     }
 
     public void setCourseId(String courseId) {
-        this.courseId.set(courseId);
+        set(Field.COURSE_ID, courseId);
     }
 
     public StringProperty titleProperty() {
-        return title;
+        return stringProperty(Field.TITLE);
     }
 
     public String getTitle() {
-        return title.get();
+        return title;
     }
 
     public void setTitle(String title) {
-        this.title.set(title);
+        set(Field.TITLE, title);
     }
 
     public StringProperty descriptionProperty() {
-        return description;
+        return stringProperty(Field.DESCRIPTION);
     }
 
     public String getDescription() {
-        return description.get();
+        return description;
     }
 
     public void setDescription(String description) {
-        this.description.set(description);
+        set(Field.DESCRIPTION, description);
     }
 
     public ObjectProperty<LocalDate> dueDateProperty() {
-        return dueDate;
+        return objectProperty(Field.DUE_DATE);
     }
 
     public LocalDate getDueDate() {
-        return dueDate.get();
+        return dueDate;
     }
 
     public void setDueDate(LocalDate dueDate) {
-        this.dueDate.set(dueDate);
+        set(Field.DUE_DATE, dueDate);
     }
 
     public ObjectProperty<LocalDate> submissionDeadlineProperty() {
-        return submissionDeadline;
+        return objectProperty(Field.SUBMISSION_DEADLINE);
     }
 
     public LocalDate getSubmissionDeadline() {
-        return submissionDeadline.get();
+        return submissionDeadline;
     }
 
     public void setSubmissionDeadline(LocalDate submissionDeadline) {
-        this.submissionDeadline.set(submissionDeadline);
+        set(Field.SUBMISSION_DEADLINE, submissionDeadline);
     }
 
     public ObjectProperty<AssignmentStatus> statusProperty() {
-        return status;
+        return objectProperty(Field.STATUS);
     }
 
     public AssignmentStatus getStatus() {
-        return status.get();
+        return status;
     }
 
     public void setStatus(AssignmentStatus status) {
-        this.status.set(status);
+        set(Field.STATUS, status);
     }
 
     public StringProperty notesProperty() {
-        return notes;
+        return stringProperty(Field.NOTES);
     }
 
     public String getNotes() {
-        return notes.get();
+        return notes;
     }
 
     public void setNotes(String notes) {
-        this.notes.set(notes);
+        set(Field.NOTES, notes);
     }
 
     public StringProperty courseNameProperty() {
-        return courseName;
+        return stringProperty(Field.COURSE_NAME);
     }
 
     public String getCourseName() {
-        return courseName.get();
+        return courseName;
     }
 
     public void setCourseName(String courseName) {
-        this.courseName.set(courseName);
+        set(Field.COURSE_NAME, courseName);
+    }
+
+    /**
+     * Set a field through its property when one exists, so the property's own listeners
+     * hear of it; the property writes the value back through {@link #apply}.
+     */
+    @SuppressWarnings("unchecked")
+    private void set(Field field, Object value) {
+        Property<Object> property = properties != null ? (Property<Object>) properties[field.ordinal()] : null;
+        if (property != null) {
+            property.setValue(value);
+        } else {
+            apply(field, value);
+        }
+    }
+
+    private void apply(Field field, Object value) {
+        Object old = get(field);
+        switch (field) {
+            case COURSE_ID -> courseId = (String) value;
+            case TITLE -> title = (String) value;
+            case DESCRIPTION -> description = (String) value;
+            case DUE_DATE -> dueDate = (LocalDate) value;
+            case SUBMISSION_DEADLINE -> submissionDeadline = (LocalDate) value;
+            case STATUS -> status = (AssignmentStatus) value;
+            case NOTES -> notes = (String) value;
+            case COURSE_NAME -> courseName = (String) value;
+        }
+        if (!Objects.equals(old, value)) {
+            for (AssignmentObserver observer : observers.observers) {
+                observer.changed(this, field, old, value);
+            }
+        }
+    }
+
+    private Object get(Field field) {
+        return switch (field) {
+            case COURSE_ID -> courseId;
+            case TITLE -> title;
+            case DESCRIPTION -> description;
+            case DUE_DATE -> dueDate;
+            case SUBMISSION_DEADLINE -> submissionDeadline;
+            case STATUS -> status;
+            case NOTES -> notes;
+            case COURSE_NAME -> courseName;
+        };
+    }
+
+    private StringProperty stringProperty(Field field) {
+        Property<?>[] made = properties();
+        if (made[field.ordinal()] == null) {
+            // Each property knows its assignment, so one listener can serve every row
+            made[field.ordinal()] = new SimpleStringProperty(this, field.propertyName, (String) get(field)) {
+                @Override
+                protected void invalidated() {
+                    apply(field, get());
+                }
+            };
+        }
+        return (StringProperty) made[field.ordinal()];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ObjectProperty<T> objectProperty(Field field) {
+        Property<?>[] made = properties();
+        if (made[field.ordinal()] == null) {
+            made[field.ordinal()] = new SimpleObjectProperty<>(this, field.propertyName, (T) get(field)) {
+                @Override
+                protected void invalidated() {
+                    apply(field, get());
+                }
+            };
+        }
+        return (ObjectProperty<T>) made[field.ordinal()];
+    }
+
+    private Property<?>[] properties() {
+        if (properties == null) {
+            properties = new Property<?>[Field.ID_SLOT + 1];
+        }
+        return properties;
     }
 }
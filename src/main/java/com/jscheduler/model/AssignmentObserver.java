@@ -0,0 +1,11 @@
+package com.jscheduler.model;
+
+/**
+ * Told of every change to the fields of the assignments it watches, whether made through a
+ * setter or through a JavaFX property. One observer serves every row it watches, and
+ * watching a row creates no property.
+ */
+@FunctionalInterface
+public interface AssignmentObserver {
+    void changed(Assignment assignment, Assignment.Field field, Object oldValue, Object newValue);
+}
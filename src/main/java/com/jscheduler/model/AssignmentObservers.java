@@ -0,0 +1,58 @@
+package com.jscheduler.model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of observers shared by every assignment watched by the same ones. Each
+ * set remembers the last set derived from it, so watching a million rows with the same
+ * observers allocates one set per observer rather than one per row.
+ */
+final class AssignmentObservers {
+    static final AssignmentObservers NONE = new AssignmentObservers(new AssignmentObserver[0]);
+
+    final AssignmentObserver[] observers;
+    private Transition added;
+    private Transition removed;
+
+    private record Transition(AssignmentObserver observer, AssignmentObservers result) {
+    }
+
+    private AssignmentObservers(AssignmentObserver[] observers) {
+        this.observers = observers;
+    }
+
+    AssignmentObservers with(AssignmentObserver observer) {
+        Transition last = added;
+        if (last != null && last.observer() == observer) {
+            return last.result();
+        }
+        AssignmentObserver[] grown = Arrays.copyOf(observers, observers.length + 1);
+        grown[observers.length] = observer;
+        AssignmentObservers result = new AssignmentObservers(grown);
+        added = new Transition(observer, result);
+        return result;
+    }
+
+    AssignmentObservers without(AssignmentObserver observer) {
+        Transition last = removed;
+        if (last != null && last.observer() == observer) {
+            return last.result();
+        }
+        int index = -1;
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] == observer) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return this;
+        }
+        AssignmentObserver[] shrunk = new AssignmentObserver[observers.length - 1];
+        System.arraycopy(observers, 0, shrunk, 0, index);
+        System.arraycopy(observers, index + 1, shrunk, index, shrunk.length - index);
+        AssignmentObservers result = shrunk.length == 0 ? NONE : new AssignmentObservers(shrunk);
+        removed = new Transition(observer, result);
+        return result;
+    }
+}
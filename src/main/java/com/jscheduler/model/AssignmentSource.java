@@ -0,0 +1,54 @@
+package com.jscheduler.model;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * A fixed sequence of encoded assignments that can be decoded one at a time, backing a
+ * {@link LazyAssignmentList}. Rows are addressed by ordinal, their position in the source.
+ * Repeated requests for the same ordinal must return the same {@link Assignment} instance.
+ */
+public interface AssignmentSource {
+
+    int size();
+
+    /**
+     * Decode the assignment at an ordinal, or return the instance decoded earlier.
+     */
+    Assignment materialize(int ordinal);
+
+    /**
+     * Decode the assignment at an ordinal into a new instance that the source does not
+     * keep, for one pass over every row that should not leave them all decoded.
+     */
+    Assignment decodeDetached(int ordinal);
+
+    /**
+     * @return the assignment decoded earlier for this ordinal, or null if it never was
+     */
+    Assignment materialized(int ordinal);
+
+    /**
+     * @param listener called once for every assignment as it is decoded
+     */
+    void setMaterializeListener(Consumer<Assignment> listener);
+
+    /**
+     * Visit every assignment decoded so far.
+     */
+    void forEachMaterialized(Consumer<Assignment> action);
+
+    // Single-field reads that do not decode the whole row.
+
+    String idAt(int ordinal);
+
+    String courseIdAt(int ordinal);
+
+    String titleAt(int ordinal);
+
+    String descriptionAt(int ordinal);
+
+    LocalDate dueDateAt(int ordinal);
+
+    AssignmentStatus statusAt(int ordinal);
+}
@@ -0,0 +1,214 @@
+package com.jscheduler.model;
+
+import com.jscheduler.util.BackedObservableList;
+import com.jscheduler.util.ListChanges;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An observable assignment list split by course, so one course's assignments are read
+ * without scanning the others. Each course's view is live: it follows rows added to and
+ * removed from the list, rows moved to another course, and rows the list reports as
+ * updated, so a filtered or sorted view on top of it behaves as it would on the full list.
+ *
+ * <p>Built on first use, then kept up to date by a listener on the list and an observer of
+ * each row's course id; a list change touching a large share of the rows, such as a reload,
+ * regroups every row at once (see {@link ListChanges#isBulk}), and views already handed out
+ * stay valid. When the list is decoded on demand, rows nobody has decoded are grouped by
+ * their raw course id and decoded when their course is first viewed. Used on the FX thread
+ * only.
+ */
+public final class AssignmentsByCourse {
+    private final ObservableList<Assignment> assignments;
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final Set<Assignment> watched = Collections.newSetFromMap(new IdentityHashMap<>());
+    private LazyAssignmentList lazy;
+    private boolean built;
+
+    private final AssignmentObserver courseIdObserver = (assignment, field, oldId, newId) -> {
+        if (field == Assignment.Field.COURSE_ID) {
+            bucket((String) oldId).rows.remove(assignment);
+            bucket((String) newId).rows.add(assignment);
+        }
+    };
+
+    public AssignmentsByCourse(ObservableList<Assignment> assignments) {
+        this.assignments = assignments;
+        assignments.addListener(this::listChanged);
+    }
+
+    /**
+     * Get a course's assignments as a live, read-only list, in the order they joined it.
+     * @param courseId the course
+     * @return the same list on every call for the course; empty if it has no assignments
+     */
+    public ObservableList<Assignment> view(String courseId) {
+        ensureBuilt();
+        Bucket bucket = bucket(courseId);
+        bucket.viewed = true;
+        decodeAll(bucket);
+        return bucket.view;
+    }
+
+    /**
+     * Use a lazily decoded list's raw fields for rows it has not decoded. Call before the
+     * list switches to it; the switch regroups the rows.
+     * @param lazy the list about to back the assignments, or null if they are all decoded
+     */
+    public void setLazyAssignments(LazyAssignmentList lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * Called as a row of the lazy list is decoded, so it is watched from then on.
+     */
+    public void decoded(Assignment assignment) {
+        if (built) {
+            watch(assignment);
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        for (Assignment assignment : watched) {
+            assignment.removeObserver(courseIdObserver);
+        }
+        watched.clear();
+        built = true;
+
+        Map<String, List<Assignment>> rows = new HashMap<>();
+        Map<String, int[]> undecoded = new HashMap<>();
+        Map<String, Integer> undecodedCounts = new HashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            if (lazy != null && lazy.ordinalAt(i) >= 0 && !lazy.isMaterialized(i)) {
+                String courseId = lazy.courseIdAt(i);
+                int count = undecodedCounts.getOrDefault(courseId, 0);
+                int[] ordinals = undecoded.computeIfAbsent(courseId, id -> new int[16]);
+                if (count == ordinals.length) {
+                    ordinals = Arrays.copyOf(ordinals, count * 2);
+                    undecoded.put(courseId, ordinals);
+                }
+                ordinals[count] = lazy.ordinalAt(i);
+                undecodedCounts.put(courseId, count + 1);
+                continue;
+            }
+            Assignment assignment = assignments.get(i);
+            watched.add(assignment);
+            assignment.addObserver(courseIdObserver);
+            rows.computeIfAbsent(assignment.getCourseId(), id -> new ArrayList<>()).add(assignment);
+        }
+
+        for (String courseId : rows.keySet()) {
+            bucket(courseId);
+        }
+        for (String courseId : undecoded.keySet()) {
+            bucket(courseId);
+        }
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            bucket.rows.setBacking(rows.getOrDefault(entry.getKey(), new ArrayList<>()));
+            bucket.undecoded = undecoded.getOrDefault(entry.getKey(), new int[0]);
+            bucket.undecodedCount = undecodedCounts.getOrDefault(entry.getKey(), 0);
+        }
+        // Views on screen must show every row; decoding adds each to its bucket
+        for (Bucket bucket : List.copyOf(buckets.values())) {
+            if (bucket.viewed) {
+                decodeAll(bucket);
+            }
+        }
+    }
+
+    private void decodeAll(Bucket bucket) {
+        if (bucket.undecodedCount == 0) {
+            return;
+        }
+        int[] ordinals = bucket.undecoded;
+        int count = bucket.undecodedCount;
+        bucket.undecoded = new int[0];
+        bucket.undecodedCount = 0;
+        for (int i = 0; i < count; i++) {
+            // A row decoded earlier joined its bucket then; decoding now does the same
+            if (lazy.getSource().materialized(ordinals[i]) == null) {
+                lazy.getSource().materialize(ordinals[i]);
+            }
+        }
+    }
+
+    private void listChanged(ListChangeListener.Change<? extends Assignment> change) {
+        if (!built) {
+            return;
+        }
+        if (ListChanges.isBulk(change, assignments.size())) {
+            rebuild();
+            return;
+        }
+        // Removals are applied per course in one pass, before the rows added
+        Map<Bucket, Set<Assignment>> removed = new IdentityHashMap<>();
+        List<Assignment> added = new ArrayList<>();
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    Assignment assignment = change.getList().get(i);
+                    BackedObservableList<Assignment> rows = bucket(assignment.getCourseId()).rows;
+                    int index = rows.indexOf(assignment);
+                    if (index >= 0) {
+                        rows.fireUpdated(index);
+                    }
+                }
+                continue;
+            }
+            for (Assignment assignment : change.getRemoved()) {
+                if (watched.remove(assignment)) {
+                    assignment.removeObserver(courseIdObserver);
+                    removed.computeIfAbsent(bucket(assignment.getCourseId()),
+                            bucket -> Collections.newSetFromMap(new IdentityHashMap<>())).add(assignment);
+                }
+            }
+            added.addAll(change.getAddedSubList());
+        }
+        removed.forEach((bucket, rows) -> bucket.rows.removeEach(rows));
+        for (Assignment assignment : added) {
+            watch(assignment);
+        }
+    }
+
+    private void watch(Assignment assignment) {
+        if (watched.add(assignment)) {
+            assignment.addObserver(courseIdObserver);
+            bucket(assignment.getCourseId()).rows.add(assignment);
+        }
+    }
+
+    private Bucket bucket(String courseId) {
+        return buckets.computeIfAbsent(courseId, id -> new Bucket());
+    }
+
+    /**
+     * One course's rows, and the snapshot ordinals of those not yet decoded.
+     */
+    private static final class Bucket {
+        private final BackedObservableList<Assignment> rows = new BackedObservableList<>();
+        private final ObservableList<Assignment> view = FXCollections.unmodifiableObservableList(rows);
+        private int[] undecoded = new int[0];
+        private int undecodedCount;
+        private boolean viewed;
+    }
+}
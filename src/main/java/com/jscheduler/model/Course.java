@@ -2,89 +2,165 @@ package com.jscheduler.model;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import java.util.UUID;
 
+/**
+ * A course's fields are plain values; as with {@link Assignment}, a field's JavaFX property
+ * is made the first time it is asked for and kept in step with the field from then on.
+ */
 public class Course {
-    private final StringProperty id;
-    private final StringProperty name;
-    private final StringProperty description;
-    private final StringProperty professor;
-    private final StringProperty semester;
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int PROFESSOR = 2;
+    private static final int SEMESTER = 3;
+    private static final int ID = 4;
+
+    private final String id;
+    // Courses keep their id string as well, so rows can share it as their course id
+    private final long key;
+    private String name;
+    private String description;
+    private String professor;
+    private String semester;
+
+    // Indexed by the constants above; null until the first property is asked for
+    private StringProperty[] properties;
 
     public Course(String name, String description, String professor, String semester) {
-        this(generateId(), name, description, professor, semester);
+        this(EntityIds.format(EntityIds.COURSE, EntityIds.generate()), name, description, professor, semester);
     }
 
     public Course(String id, String name, String description, String professor, String semester) {
-        this.id = new SimpleStringProperty(id);
-        this.name = new SimpleStringProperty(name);
-        this.description = new SimpleStringProperty(description);
-        this.professor = new SimpleStringProperty(professor);
-        this.semester = new SimpleStringProperty(semester);
+        this.id = id;
+        this.key = EntityIds.parse(EntityIds.COURSE, id);
+        this.name = name;
+        this.description = description;
+        this.professor = professor;
+        this.semester = semester;
     }
 
-    private static String generateId() {
-        return "c_" + UUID.randomUUID().toString().substring(0, 8);
+    public StringProperty idProperty() {
+        StringProperty[] made = properties();
+        if (made[ID] == null) {
+            made[ID] = new IdProperty(this, id);
+        }
+        return made[ID];
     }
 
-    public StringProperty idProperty() {
-        return id;
+    /**
+     * @return a copy of the fields, without properties, for another thread to read while
+     *         this one keeps changing
+     */
+    Course copy() {
+        return new Course(id, name, description, professor, semester);
     }
 
     public String getId() {
-        return id.get();
+        return id;
+    }
+
+    /**
+     * @return the id as a number, for keying indexes without hashing its string form
+     */
+    public long getKey() {
+        return key;
     }
 
     public StringProperty nameProperty() {
-        return name;
+        return property(NAME, "name");
     }
 
     public String getName() {
-        return name.get();
+        return name;
     }
 
     public void setName(String name) {
-        this.name.set(name);
+        set(NAME, name);
     }
 
     public StringProperty descriptionProperty() {
-        return description;
+        return property(DESCRIPTION, "description");
     }
 
     public String getDescription() {
-        return description.get();
+        return description;
     }
 
     public void setDescription(String description) {
-        this.description.set(description);
+        set(DESCRIPTION, description);
     }
 
     public StringProperty professorProperty() {
-        return professor;
+        return property(PROFESSOR, "professor");
     }
 
     public String getProfessor() {
-        return professor.get();
+        return professor;
     }
 
     public void setProfessor(String professor) {
-        this.professor.set(professor);
+        set(PROFESSOR, professor);
     }
 
     public StringProperty semesterProperty() {
-        return semester;
+        return property(SEMESTER, "semester");
     }
 
     public String getSemester() {
-        return semester.get();
+        return semester;
     }
 
     public void setSemester(String semester) {
-        this.semester.set(semester);
+        set(SEMESTER, semester);
+    }
+
+    private void set(int field, String value) {
+        if (properties != null && properties[field] != null) {
+            properties[field].set(value);
+        } else {
+            apply(field, value);
+        }
+    }
+
+    private void apply(int field, String value) {
+        switch (field) {
+            case NAME -> name = value;
+            case DESCRIPTION -> description = value;
+            case PROFESSOR -> professor = value;
+            default -> semester = value;
+        }
+    }
+
+    private String get(int field) {
+        return switch (field) {
+            case NAME -> name;
+            case DESCRIPTION -> description;
+            case PROFESSOR -> professor;
+            default -> semester;
+        };
+    }
+
+    private StringProperty property(int field, String propertyName) {
+        StringProperty[] made = properties();
+        if (made[field] == null) {
+            made[field] = new SimpleStringProperty(this, propertyName, get(field)) {
+                @Override
+                protected void invalidated() {
+                    apply(field, get());
+                }
+            };
+        }
+        return made[field];
+    }
+
+    private StringProperty[] properties() {
+        if (properties == null) {
+            properties = new StringProperty[ID + 1];
+        }
+        return properties;
     }
 
     @Override
     public String toString() {
-        return name.get();
+        return name;
     }
 }
@@ -0,0 +1,115 @@
+package com.jscheduler.model;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * 64-bit entity ids and their string form, which is what JSON files and the database store.
+ *
+ * <p>The string form is a one-letter prefix, an underscore and the id in lower-case hex:
+ * eight digits for ids below 2^32 and sixteen otherwise. Ids made before this scheme were
+ * eight hex digits cut from a random UUID, so they read back as their own value, and new
+ * ids are drawn from above 2^32, so the two never meet. Any other string, such as an id
+ * edited by hand, maps to a negative number hashed from its text. That number cannot be
+ * formatted back, so entities keep such an id's text themselves; two such ids sharing a
+ * number would take a 63-bit hash collision.
+ */
+public final class EntityIds {
+    public static final char COURSE = 'c';
+    public static final char ASSIGNMENT = 'a';
+
+    // The number standing for a missing id
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final long LEGACY_LIMIT = 1L << 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // Each lower-case hex digit's value, by character; -1 for every other character
+    private static final byte[] DIGITS = new byte['f' + 1];
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < HEX.length; i++) {
+            DIGITS[HEX[i]] = (byte) i;
+        }
+    }
+
+    private EntityIds() {
+    }
+
+    /**
+     * @return a new random id, outside the range of ids made before this scheme
+     */
+    public static long generate() {
+        long id;
+        do {
+            id = RANDOM.nextLong() & Long.MAX_VALUE;
+        } while (id < LEGACY_LIMIT);
+        return id;
+    }
+
+    /**
+     * @param prefix {@link #COURSE} or {@link #ASSIGNMENT}
+     * @return the number for an id string; null maps to a number that formats back to null
+     */
+    public static long parse(char prefix, String text) {
+        if (text == null) {
+            return NONE;
+        }
+        int digits = text.length() - 2;
+        if ((digits == 8 || digits == 16) && text.charAt(0) == prefix && text.charAt(1) == '_') {
+            long id = 0;
+            int i = 2;
+            for (; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int digit = c < DIGITS.length ? DIGITS[c] : -1;
+                if (digit < 0) {
+                    break;
+                }
+                id = id << 4 | digit;
+            }
+            // Sixteen digits must be needed, or the string is not the id's only form
+            if (i == text.length() && (digits == 8 || id >= LEGACY_LIMIT)) {
+                return id;
+            }
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash |= Long.MIN_VALUE;
+        return hash != NONE ? hash : NONE + 1;
+    }
+
+    /**
+     * @return true if the number stands for an id string that {@link #format} can rebuild
+     */
+    public static boolean isFormattable(long id) {
+        return id >= 0 || id == NONE;
+    }
+
+    /**
+     * @return the string form of an id, exactly as it was parsed
+     * @throws IllegalArgumentException if the id was hashed from a string of another form
+     */
+    public static String format(char prefix, long id) {
+        if (id == NONE) {
+            return null;
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("Id " + id + " has no canonical form");
+        }
+        int digits = id < LEGACY_LIMIT ? 8 : 16;
+        char[] text = new char[2 + digits];
+        text[0] = prefix;
+        text[1] = '_';
+        for (int i = text.length - 1; i >= 2; i--) {
+            text[i] = HEX[(int) id & 0xF];
+            id >>>= 4;
+        }
+        return new String(text);
+    }
+}
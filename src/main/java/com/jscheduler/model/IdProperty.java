@@ -0,0 +1,23 @@
+package com.jscheduler.model;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * An entity's id as a property. Ids never change, so it refuses to be set or bound.
+ */
+final class IdProperty extends SimpleStringProperty {
+    IdProperty(Object bean, String id) {
+        super(bean, "id", id);
+    }
+
+    @Override
+    public void set(String newValue) {
+        throw new UnsupportedOperationException("An id cannot be changed");
+    }
+
+    @Override
+    public void bind(ObservableValue<? extends String> newObservable) {
+        throw new UnsupportedOperationException("An id cannot be bound");
+    }
+}
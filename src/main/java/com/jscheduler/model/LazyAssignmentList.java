@@ -0,0 +1,274 @@
+package com.jscheduler.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A mutable assignment list whose rows start out as ordinals into an {@link AssignmentSource}
+ * and are decoded the first time {@link #get} reaches them. Added and replaced rows are held
+ * directly. The single-field accessors read through to the source for rows that have not
+ * been decoded, so scans over due dates, statuses or course ids stay cheap.
+ *
+ * <p>Like {@link java.util.ArrayList} it is not thread-safe; hand other threads a
+ * {@link #copy()}.
+ */
+public class LazyAssignmentList extends AbstractList<Assignment> implements RandomAccess {
+    private static final int NO_ORDINAL = -1;
+
+    private final AssignmentSource source;
+    // Set on a snapshot copy, which never takes rows the source decodes after it was made
+    private final boolean detached;
+    private int[] ordinals;
+    private Assignment[] items;
+    private int size;
+
+    public LazyAssignmentList(AssignmentSource source) {
+        this.source = source;
+        this.detached = false;
+        this.size = source.size();
+        this.ordinals = new int[Math.max(size, 10)];
+        this.items = new Assignment[ordinals.length];
+        for (int i = 0; i < size; i++) {
+            ordinals[i] = i;
+        }
+    }
+
+    private LazyAssignmentList(LazyAssignmentList other, boolean detached) {
+        this.source = other.source;
+        this.detached = detached;
+        this.size = other.size;
+        this.ordinals = Arrays.copyOf(other.ordinals, other.ordinals.length);
+        this.items = Arrays.copyOf(other.items, other.items.length);
+    }
+
+    private LazyAssignmentList(LazyAssignmentList other, int from, int to) {
+        this.source = other.source;
+        this.detached = other.detached;
+        this.size = to - from;
+        this.ordinals = Arrays.copyOfRange(other.ordinals, from, to);
+        this.items = Arrays.copyOfRange(other.items, from, to);
+    }
+
+    /**
+     * @return an independent list with the same rows, without decoding any of them
+     */
+    public LazyAssignmentList copy() {
+        return new LazyAssignmentList(this, false);
+    }
+
+    /**
+     * @return an independent list holding copies of the decoded rows, for another thread to
+     *         read while this one keeps changing. Rows not decoded yet stay so in the copy,
+     *         which decodes them into rows of its own.
+     */
+    public LazyAssignmentList detachedCopy() {
+        LazyAssignmentList copy = new LazyAssignmentList(this, true);
+        for (int i = 0; i < size; i++) {
+            Assignment assignment = peek(i);
+            copy.items[i] = assignment != null ? assignment.copy() : null;
+        }
+        return copy;
+    }
+
+    public AssignmentSource getSource() {
+        return source;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Assignment get(int index) {
+        Objects.checkIndex(index, size);
+        Assignment assignment = items[index];
+        if (assignment == null) {
+            assignment = detached ? source.decodeDetached(ordinals[index]) : source.materialize(ordinals[index]);
+            items[index] = assignment;
+        }
+        return assignment;
+    }
+
+    @Override
+    public Assignment set(int index, Assignment element) {
+        Assignment previous = get(index);
+        items[index] = element;
+        ordinals[index] = NO_ORDINAL;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Assignment element) {
+        Objects.checkIndex(index, size + 1);
+        if (size == items.length) {
+            int capacity = items.length + (items.length >> 1);
+            items = Arrays.copyOf(items, capacity);
+            ordinals = Arrays.copyOf(ordinals, capacity);
+        }
+        System.arraycopy(items, index, items, index + 1, size - index);
+        System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+        items[index] = element;
+        ordinals[index] = NO_ORDINAL;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Assignment remove(int index) {
+        Assignment previous = get(index);
+        int tail = size - index - 1;
+        System.arraycopy(items, index + 1, items, index, tail);
+        System.arraycopy(ordinals, index + 1, ordinals, index, tail);
+        size--;
+        items[size] = null;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Compares against decoded rows only; a row nobody has decoded cannot be the argument.
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (int i = 0; i < size; i++) {
+            Assignment assignment = peek(i);
+            if (assignment != null && assignment.equals(o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for (int i = size - 1; i >= 0; i--) {
+            Assignment assignment = peek(i);
+            if (assignment != null && assignment.equals(o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Remove every row belonging to a course in one pass, decoding none of them.
+     * @param removedRuns told each run of adjacent removed rows, as a list that decodes a row
+     *                    when it is read, and the index the run started at once the runs
+     *                    before it were gone
+     * @return the number of rows removed
+     */
+    public int removeByCourseId(String courseId, ObjIntConsumer<? super LazyAssignmentList> removedRuns) {
+        int kept = 0;
+        int runStart = -1;
+        for (int i = 0; i < size; i++) {
+            if (courseId.equals(courseIdAt(i))) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                continue;
+            }
+            if (runStart >= 0) {
+                // Copied before the rows after it move down over it
+                removedRuns.accept(new LazyAssignmentList(this, runStart, i), kept);
+                runStart = -1;
+            }
+            items[kept] = items[i];
+            ordinals[kept] = ordinals[i];
+            kept++;
+        }
+        if (runStart >= 0) {
+            removedRuns.accept(new LazyAssignmentList(this, runStart, size), kept);
+        }
+        int removed = size - kept;
+        if (removed > 0) {
+            Arrays.fill(items, kept, size, null);
+            size = kept;
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * @return the decoded row, or if it has not been decoded, a copy that nothing keeps and
+     *         whose course name is not filled in
+     */
+    public Assignment detachedAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment : source.decodeDetached(ordinals[index]);
+    }
+
+    /**
+     * @return true if the row has been decoded, by this list or another one sharing its source
+     */
+    public boolean isMaterialized(int index) {
+        return peek(index) != null;
+    }
+
+    /**
+     * @return the row's position in the source, or -1 if it was added after loading
+     */
+    public int ordinalAt(int index) {
+        Objects.checkIndex(index, size);
+        return ordinals[index];
+    }
+
+    public String idAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getId() : source.idAt(ordinals[index]);
+    }
+
+    public String courseIdAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getCourseId() : source.courseIdAt(ordinals[index]);
+    }
+
+    public String titleAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getTitle() : source.titleAt(ordinals[index]);
+    }
+
+    public String descriptionAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getDescription() : source.descriptionAt(ordinals[index]);
+    }
+
+    public LocalDate dueDateAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getDueDate() : source.dueDateAt(ordinals[index]);
+    }
+
+    public AssignmentStatus statusAt(int index) {
+        Assignment assignment = peek(index);
+        return assignment != null ? assignment.getStatus() : source.statusAt(ordinals[index]);
+    }
+
+    /**
+     * @return the decoded row, or null without decoding it
+     */
+    private Assignment peek(int index) {
+        Objects.checkIndex(index, size);
+        Assignment assignment = items[index];
+        if (assignment == null && ordinals[index] != NO_ORDINAL && !detached) {
+            assignment = source.materialized(ordinals[index]);
+            items[index] = assignment;
+        }
+        return assignment;
+    }
+}
@@ -1,17 +1,36 @@
 package com.jscheduler.model;
 
+import com.jscheduler.util.LongIntMap;
+import com.jscheduler.util.LongMap;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * A semester's courses and assignments. Id lookups go through hash indexes keyed by the
+ * ids' numeric form (see {@link EntityIds}) that are kept in step with the lists by every
+ * mutator, so the lists are exposed read-only.
+ *
+ * <p>The assignment index is built on the first lookup. When the assignments are a
+ * {@link LazyAssignmentList}, rows that have not been decoded are indexed by ordinal and
+ * decoded only when a lookup hits them.
+ */
 public class Semester {
     private String name;
     private List<Course> courses;
     private List<Assignment> assignments;
 
+    private final LongMap<Course> coursesById;
+    private LongMap<Assignment> assignmentsById;
+    private LongIntMap undecodedOrdinalsById;
+
     public Semester(String name) {
         this.name = name;
         this.courses = new ArrayList<>();
         this.assignments = new ArrayList<>();
+        this.coursesById = new LongMap<>();
     }
 
     public String getName() {
@@ -22,50 +41,237 @@ public class Semester {
         this.name = name;
     }
 
+    /**
+     * @return a read-only view; change courses through {@link #addCourse},
+     *         {@link #removeCourse} or {@link #setCourses}
+     */
     public List<Course> getCourses() {
-        return courses;
+        return Collections.unmodifiableList(courses);
     }
 
     public void setCourses(List<Course> courses) {
-        this.courses = courses;
+        this.courses = new ArrayList<>(courses);
+        coursesById.clear();
+        for (Course course : this.courses) {
+            coursesById.put(course.getKey(), course);
+        }
     }
 
+    /**
+     * @return a read-only view; change assignments through {@link #addAssignment},
+     *         {@link #removeAssignment} or {@link #setAssignments}
+     */
     public List<Assignment> getAssignments() {
-        return assignments;
+        return Collections.unmodifiableList(assignments);
     }
 
     public void setAssignments(List<Assignment> assignments) {
+        this.assignments = new ArrayList<>(assignments);
+        resetAssignmentIndex();
+    }
+
+    /**
+     * Take ownership of a lazily decoded list without copying or decoding it.
+     */
+    public void attachAssignments(LazyAssignmentList assignments) {
         this.assignments = assignments;
+        resetAssignmentIndex();
+    }
+
+    /**
+     * @return the lazily decoded list backing this semester, or null if it is fully loaded
+     */
+    public LazyAssignmentList getLazyAssignments() {
+        return assignments instanceof LazyAssignmentList lazy ? lazy : null;
+    }
+
+    /**
+     * @return a semester sharing this one's entities but with its own lists and indexes, so
+     *         rows added to or removed from one do not reach the other
+     */
+    public Semester copy() {
+        Semester copy = new Semester(name);
+        copy.courses.addAll(courses);
+        for (Course course : courses) {
+            copy.coursesById.put(course.getKey(), course);
+        }
+        LazyAssignmentList lazy = getLazyAssignments();
+        if (lazy != null) {
+            copy.assignments = lazy.copy();
+        } else {
+            copy.assignments.addAll(assignments);
+        }
+        return copy;
+    }
+
+    /**
+     * @return a copy down to the rows, which another thread can read while this one keeps
+     *         changing; rows of a lazy list that have not been decoded are not copied
+     */
+    public Semester snapshot() {
+        Semester snapshot = new Semester(name);
+        for (Course course : courses) {
+            Course copy = course.copy();
+            snapshot.courses.add(copy);
+            snapshot.coursesById.put(copy.getKey(), copy);
+        }
+        LazyAssignmentList lazy = getLazyAssignments();
+        if (lazy != null) {
+            snapshot.assignments = lazy.detachedCopy();
+        } else {
+            for (Assignment assignment : assignments) {
+                snapshot.assignments.add(assignment.copy());
+            }
+        }
+        return snapshot;
     }
 
     public Course findCourseById(String id) {
-        return courses.stream()
-                .filter(c -> c.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return coursesById.get(EntityIds.parse(EntityIds.COURSE, id));
     }
 
     public Assignment findAssignmentById(String id) {
-        return assignments.stream()
-                .filter(a -> a.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return findAssignmentByKey(EntityIds.parse(EntityIds.ASSIGNMENT, id));
+    }
+
+    /**
+     * @param key an assignment's {@link Assignment#getKey}, which saves formatting its id
+     */
+    public Assignment findAssignmentByKey(long key) {
+        ensureAssignmentIndex();
+        Assignment assignment = assignmentsById.get(key);
+        if (assignment == null && undecodedOrdinalsById != null) {
+            int ordinal = undecodedOrdinalsById.remove(key);
+            if (ordinal != LongIntMap.MISSING) {
+                assignment = getLazyAssignments().getSource().materialize(ordinal);
+                assignmentsById.put(key, assignment);
+            }
+        }
+        return assignment;
     }
 
     public void addCourse(Course course) {
         courses.add(course);
+        coursesById.put(course.getKey(), course);
     }
 
     public void removeCourse(String courseId) {
-        courses.removeIf(c -> c.getId().equals(courseId));
-        assignments.removeIf(a -> a.getCourseId().equals(courseId));
+        Course course = coursesById.remove(EntityIds.parse(EntityIds.COURSE, courseId));
+        if (course != null) {
+            courses.remove(course);
+        }
+        LazyAssignmentList lazy = getLazyAssignments();
+        if (lazy != null) {
+            lazy.removeByCourseId(courseId, (run, from) -> {
+                for (int i = 0; i < run.size(); i++) {
+                    unindexAssignment(EntityIds.parse(EntityIds.ASSIGNMENT, run.idAt(i)));
+                }
+            });
+            return;
+        }
+        assignments.removeIf(a -> {
+            if (a.getCourseId().equals(courseId)) {
+                unindexAssignment(a.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Remove a course along with assignments the caller has already found, comparing rows
+     * by identity instead of reading each row's course id.
+     * @param courseAssignments every assignment of the course
+     */
+    public void removeCourse(String courseId, Set<Assignment> courseAssignments) {
+        if (getLazyAssignments() != null) {
+            removeCourse(courseId);
+            return;
+        }
+        Course course = coursesById.remove(EntityIds.parse(EntityIds.COURSE, courseId));
+        if (course != null) {
+            courses.remove(course);
+        }
+        removeAssignments(courseAssignments);
     }
 
     public void addAssignment(Assignment assignment) {
         assignments.add(assignment);
+        if (assignmentsById != null) {
+            assignmentsById.put(assignment.getKey(), assignment);
+        }
     }
 
     public void removeAssignment(String assignmentId) {
-        assignments.removeIf(a -> a.getId().equals(assignmentId));
+        removeAssignment(EntityIds.parse(EntityIds.ASSIGNMENT, assignmentId));
+    }
+
+    /**
+     * @param key an assignment's {@link Assignment#getKey}, which saves formatting its id
+     */
+    public void removeAssignment(long key) {
+        Assignment assignment = findAssignmentByKey(key);
+        if (assignment != null) {
+            assignmentsById.remove(key);
+            assignments.remove(assignment);
+        }
+    }
+
+    /**
+     * Remove many assignments in one pass over the list, comparing rows by identity. Rows
+     * of a lazily decoded list are removed one at a time.
+     */
+    public void removeAssignments(Set<Assignment> toRemove) {
+        if (toRemove.isEmpty()) {
+            return;
+        }
+        if (getLazyAssignments() != null) {
+            for (Assignment assignment : toRemove) {
+                removeAssignment(assignment.getKey());
+            }
+            return;
+        }
+        assignments.removeIf(toRemove::contains);
+        for (Assignment assignment : toRemove) {
+            unindexAssignment(assignment.getKey());
+        }
+    }
+
+    private void ensureAssignmentIndex() {
+        if (assignmentsById != null) {
+            return;
+        }
+        LazyAssignmentList lazy = getLazyAssignments();
+        if (lazy == null) {
+            assignmentsById = new LongMap<>(assignments.size());
+            for (Assignment assignment : assignments) {
+                assignmentsById.put(assignment.getKey(), assignment);
+            }
+            return;
+        }
+        assignmentsById = new LongMap<>();
+        undecodedOrdinalsById = new LongIntMap(lazy.size());
+        for (int i = 0; i < lazy.size(); i++) {
+            if (lazy.isMaterialized(i)) {
+                Assignment assignment = lazy.get(i);
+                assignmentsById.put(assignment.getKey(), assignment);
+            } else {
+                undecodedOrdinalsById.put(EntityIds.parse(EntityIds.ASSIGNMENT, lazy.idAt(i)), lazy.ordinalAt(i));
+            }
+        }
+    }
+
+    private void unindexAssignment(long key) {
+        if (assignmentsById != null) {
+            assignmentsById.remove(key);
+        }
+        if (undecodedOrdinalsById != null) {
+            undecodedOrdinalsById.remove(key);
+        }
+    }
+
+    private void resetAssignmentIndex() {
+        assignmentsById = null;
+        undecodedOrdinalsById = null;
     }
 }
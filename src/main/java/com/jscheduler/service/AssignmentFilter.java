@@ -0,0 +1,57 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * What the assignment table is narrowed to: words to find in the title, course, description
+ * or notes, a status, and an inclusive due date range. Null or blank criteria match
+ * everything; an assignment without a due date is excluded once either date is set.
+ * Words match as {@link DataService#search} matches them; for a large list, combine
+ * {@link #withoutQuery()} with {@link DataService#searchMatcher} to use its index.
+ *
+ * @param query words to search for, ignoring case
+ * @param status the status to keep, or null for any
+ * @param from earliest due date kept, or null
+ * @param to latest due date kept, or null
+ */
+public record AssignmentFilter(String query, AssignmentStatus status, LocalDate from, LocalDate to)
+        implements Predicate<Assignment> {
+
+    public static final AssignmentFilter NONE = new AssignmentFilter(null, null, null, null);
+
+    public AssignmentFilter {
+        query = query == null || query.isBlank() ? null : query.strip();
+    }
+
+    /**
+     * @return true if every assignment matches
+     */
+    public boolean isEmpty() {
+        return query == null && status == null && from == null && to == null;
+    }
+
+    /**
+     * @return this filter with no words to search for
+     */
+    public AssignmentFilter withoutQuery() {
+        return query == null ? this : new AssignmentFilter(null, status, from, to);
+    }
+
+    @Override
+    public boolean test(Assignment assignment) {
+        if (status != null && assignment.getStatus() != status) {
+            return false;
+        }
+        if (from != null || to != null) {
+            LocalDate due = assignment.getDueDate();
+            if (due == null || (from != null && due.isBefore(from)) || (to != null && due.isAfter(to))) {
+                return false;
+            }
+        }
+        return query == null || AssignmentSearchIndex.matches(assignment, query);
+    }
+}
@@ -0,0 +1,402 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.LazyAssignmentList;
+import com.jscheduler.util.FxThreads;
+import javafx.concurrent.Task;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Imports courses and assignments from a CSV file or an iCalendar file. The file is read
+ * one record at a time off the FX thread and the results are committed through
+ * {@link DataService#batch} in batches of {@value #BATCH_SIZE}, so a file of millions of
+ * lines takes constant memory beyond the rows it adds.
+ *
+ * <p>CSV files name their columns in a header: title (or assignment), course, description,
+ * due, deadline, status, notes; a row without a title describes a course, using course,
+ * description, professor and semester, as a course catalog does. iCalendar files supply
+ * events and to-dos; see {@link IcsRecordReader}. Rows without a course go to a course
+ * named after the file. Courses are matched by name, ignoring case, and created when new.
+ *
+ * <p>An assignment is a duplicate when its course, title, due date and description match,
+ * ignoring case and surrounding spaces, an assignment already present or imported earlier
+ * in the file; duplicates are skipped. Finding them reads every existing assignment once,
+ * from the raw snapshot fields for rows that have not been decoded.
+ */
+public final class AssignmentImporter {
+    static final int BATCH_SIZE = 5000;
+    // Existing rows hashed per visit to the FX thread
+    private static final int HASH_CHUNK_SIZE = 20_000;
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/uuuu");
+
+    /**
+     * What an import did.
+     * @param imported assignments added
+     * @param coursesAdded courses created
+     * @param duplicates assignments skipped as duplicates
+     * @param skipped records with neither a title nor a course, and exported deadline events
+     * @param records records read
+     * @param millis time taken
+     */
+    public record Summary(long imported, int coursesAdded, long duplicates, long skipped, long records, long millis) {
+
+        public long recordsPerSecond() {
+            return millis > 0 ? records * 1000 / millis : records;
+        }
+
+        @Override
+        public String toString() {
+            return "Imported " + imported + " assignments and " + coursesAdded + " courses ("
+                    + duplicates + " duplicates, " + skipped + " skipped) in " + millis + " ms, "
+                    + recordsPerSecond() + " records/s";
+        }
+    }
+
+    private final DataService dataService;
+
+    public AssignmentImporter(DataService dataService) {
+        this.dataService = dataService;
+    }
+
+    /**
+     * Import a file on a background thread. Batches committed before a cancel or a read
+     * error stay imported.
+     * @param file a .csv, .ics or .ical file
+     * @return the running task, reporting progress through the file and, when done, the
+     *         summary as its message
+     */
+    public Task<Summary> importAsync(Path file) {
+        Task<Summary> task = new Task<>() {
+            @Override
+            protected Summary call() throws IOException, InterruptedException {
+                updateMessage("Importing " + file.getFileName() + "\u2026");
+                Summary summary = importFile(file, fraction -> updateProgress(fraction, 1),
+                        FxThreads::runAndWait, this::isCancelled);
+                updateProgress(1, 1);
+                updateMessage(summary.toString());
+                return summary;
+            }
+        };
+        Thread.ofVirtual().name("jscheduler-importer").start(task);
+        return task;
+    }
+
+    /**
+     * Import a file on the calling thread, reading and changing the data service only on
+     * the model thread.
+     */
+    Summary importFile(Path file, DoubleConsumer progress, ModelThread modelThread, BooleanSupplier cancelled)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        String fileName = file.getFileName().toString();
+        String defaultCourse = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+        long fileSize = Math.max(1, Files.size(file));
+
+        Map<String, Course> coursesByName = new HashMap<>();
+        ContentHashes hashes = new ContentHashes();
+        String[] semesterName = new String[1];
+        AtomicReference<List<Assignment>> existing = new AtomicReference<>();
+        modelThread.run(() -> {
+            for (Course course : dataService.getCourses()) {
+                coursesByName.putIfAbsent(courseKey(course.getName()), course);
+            }
+            semesterName[0] = dataService.getCurrentSemester().getName();
+            // Taken in one visit, so rows deleted or added between the visits below cannot
+            // shift the chunks; copying a lazy list decodes none of its rows
+            LazyAssignmentList lazy = dataService.getCurrentSemester().getLazyAssignments();
+            existing.set(lazy != null ? lazy.copy() : new ArrayList<>(dataService.getAssignments()));
+        });
+        List<Assignment> rows = existing.get();
+        for (int from = 0; from < rows.size(); from += HASH_CHUNK_SIZE) {
+            int chunkStart = from;
+            modelThread.run(() -> {
+                int to = Math.min(rows.size(), chunkStart + HASH_CHUNK_SIZE);
+                for (int i = chunkStart; i < to; i++) {
+                    hashes.add(contentHash(rows, i));
+                }
+            });
+        }
+
+        long imported = 0;
+        int coursesAdded = 0;
+        long duplicates = 0;
+        long skipped = 0;
+        long records = 0;
+        List<Course> newCourses = new ArrayList<>();
+        List<Assignment> newAssignments = new ArrayList<>(BATCH_SIZE);
+        try (CountingInputStream bytes = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader text = new BufferedReader(new InputStreamReader(bytes, StandardCharsets.UTF_8))) {
+            ImportRecordReader reader = isCalendar(fileName) ? new IcsRecordReader(text) : new CsvRecordReader(text);
+            Map<String, String> record = new HashMap<>();
+            while (reader.next(record)) {
+                records++;
+                if (CalendarExporter.DEADLINE_KIND.equalsIgnoreCase(record.get("kind"))) {
+                    // The exporter's second event for an assignment, whose due event carries the deadline
+                    skipped++;
+                    continue;
+                }
+                String title = field(record, "title", "assignment");
+                String courseName = field(record, "course", "course name");
+                if (title == null && courseName == null) {
+                    skipped++;
+                    continue;
+                }
+                String key = courseKey(courseName != null ? courseName : defaultCourse);
+                Course course = coursesByName.get(key);
+                if (course == null) {
+                    String semester = field(record, "semester");
+                    course = new Course(courseName != null ? courseName : defaultCourse,
+                            title == null ? orEmpty(field(record, "description")) : "",
+                            orEmpty(field(record, "professor", "instructor")),
+                            semester != null ? semester : semesterName[0]);
+                    coursesByName.put(key, course);
+                    newCourses.add(course);
+                    coursesAdded++;
+                }
+                if (title == null) {
+                    continue;
+                }
+
+                String description = orEmpty(field(record, "description"));
+                LocalDate due = parseDate(field(record, "due", "due date"));
+                if (!hashes.add(contentHash(course.getId(), title, due, description))) {
+                    duplicates++;
+                    continue;
+                }
+                newAssignments.add(new Assignment(course.getId(), title, description, due,
+                        parseDate(field(record, "deadline", "submission deadline")),
+                        parseStatus(field(record, "status")), orEmpty(field(record, "notes"))));
+                imported++;
+                if (newAssignments.size() == BATCH_SIZE) {
+                    commit(modelThread, newCourses, newAssignments);
+                    progress.accept((double) bytes.count / fileSize);
+                    if (cancelled.getAsBoolean()) {
+                        break;
+                    }
+                }
+            }
+            commit(modelThread, newCourses, newAssignments);
+        }
+
+        Summary summary = new Summary(imported, coursesAdded, duplicates, skipped, records,
+                (System.nanoTime() - start) / 1_000_000);
+        System.out.println(summary + " from " + fileName);
+        return summary;
+    }
+
+    private void commit(ModelThread modelThread, List<Course> courses, List<Assignment> assignments)
+            throws InterruptedException {
+        if (courses.isEmpty() && assignments.isEmpty()) {
+            return;
+        }
+        List<Course> courseBatch = List.copyOf(courses);
+        List<Assignment> assignmentBatch = List.copyOf(assignments);
+        courses.clear();
+        assignments.clear();
+        modelThread.run(() -> dataService.batch(batch -> {
+            courseBatch.forEach(batch::addCourse);
+            assignmentBatch.forEach(batch::addAssignment);
+        }));
+    }
+
+    private static boolean isCalendar(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".ics") || lower.endsWith(".ical");
+    }
+
+    /**
+     * @return the first of the named fields that is present and not blank, stripped
+     */
+    private static String field(Map<String, String> record, String... names) {
+        for (String name : names) {
+            String value = record.get(name);
+            if (value != null && !value.isBlank()) {
+                return value.strip();
+            }
+        }
+        return null;
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String courseKey(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Read a date written as 2026-10-17, 10/17/2026 or iCalendar's 20261017, ignoring any
+     * time of day after it.
+     * @return the date, or null if there is none or it cannot be read
+     */
+    static LocalDate parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            if (text.length() >= 8 && isDigits(text, 8) && (text.length() == 8 || text.charAt(8) == 'T')) {
+                return LocalDate.of(Integer.parseInt(text, 0, 4, 10), Integer.parseInt(text, 4, 6, 10),
+                        Integer.parseInt(text, 6, 8, 10));
+            }
+            if (text.indexOf('/') >= 0) {
+                return LocalDate.parse(text, US_DATE);
+            }
+            return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDigits(String text, int count) {
+        for (int i = 0; i < count; i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AssignmentStatus parseStatus(String text) {
+        return text == null ? AssignmentStatus.NOT_STARTED
+                : AssignmentStatus.fromString(text.replace('_', ' ').replace('-', ' '));
+    }
+
+    /**
+     * Hash what makes two assignments the same, ignoring case and surrounding spaces.
+     */
+    static long contentHash(String courseId, String title, LocalDate due, String description) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, courseId);
+        hash = mix(hash, title);
+        hash = (hash ^ (due != null ? due.toEpochDay() : Long.MIN_VALUE)) * 0x100000001b3L;
+        hash = mix(hash, description);
+        // Spread the bits so nearby hashes land apart in the table
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long contentHash(List<Assignment> rows, int index) {
+        if (rows instanceof LazyAssignmentList lazy && !lazy.isMaterialized(index)) {
+            return contentHash(lazy.courseIdAt(index), lazy.titleAt(index), lazy.dueDateAt(index),
+                    lazy.descriptionAt(index));
+        }
+        Assignment a = rows.get(index);
+        return contentHash(a.getCourseId(), a.getTitle(), a.getDueDate(), a.getDescription());
+    }
+
+    private static long mix(long hash, String text) {
+        if (text != null) {
+            int from = 0;
+            int to = text.length();
+            while (from < to && Character.isWhitespace(text.charAt(from))) {
+                from++;
+            }
+            while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+                to--;
+            }
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ Character.toLowerCase(text.charAt(i))) * 0x100000001b3L;
+            }
+        }
+        // Keeps "ab" + "c" apart from "a" + "bc"
+        return (hash ^ 0x1f) * 0x100000001b3L;
+    }
+
+    /**
+     * An open-addressing set of content hashes, eight bytes a row where a set of boxed
+     * longs would take several times that.
+     */
+    private static final class ContentHashes {
+        private long[] table = new long[1024];
+        private int size;
+
+        /**
+         * @return false if the hash was already present
+         */
+        boolean add(long hash) {
+            // Zero marks an empty slot
+            long key = hash != 0 ? hash : 1;
+            int mask = table.length - 1;
+            int slot = (int) key & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            if (++size * 2 > table.length) {
+                grow();
+            }
+            return true;
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long key : old) {
+                if (key != 0) {
+                    int slot = (int) key & mask;
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = key;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read, to report progress through the file.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,683 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentObserver;
+import com.jscheduler.util.ListChanges;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the words of each assignment's title, course name, description and
+ * notes, so a search reads only the postings of the words it names instead of every row.
+ * Words are runs of letters and digits, compared in lower case. A query word matches an
+ * indexed word that starts with it, or, from three letters on, one that contains it; words
+ * containing a given three-letter sequence are looked up through a trigram table. Every
+ * query word must match, in any of the fields.
+ *
+ * <p>The index is built on the first search, reading every assignment, and then kept up to
+ * date by a listener on the assignment list and an observer of each indexed row's text and
+ * due date. A list change touching a large share of the rows, such as a reload, drops it
+ * until the next search; see {@link ListChanges#isBulk}. Like the list it watches, it is
+ * used on the FX thread only.
+ */
+final class AssignmentSearchIndex {
+    // Only the first words of a query are used
+    static final int MAX_TERMS = 8;
+
+    private static final int TITLE = 1;
+    private static final int COURSE = 2;
+    private static final int DESCRIPTION = 4;
+    private static final int NOTES = 8;
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+
+    private static final int MAX_SCORE = MAX_TERMS * EXACT * fieldWeight(TITLE);
+
+    private static final int TRIGRAM = 3;
+
+    private final ObservableList<Assignment> assignments;
+
+    // Word -> rows containing it, with a sorted view for prefix lookups
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TreeMap<String, Postings> words = new TreeMap<>();
+    // Three-letter sequence -> words of three letters or more containing it
+    private final Map<String, WordList> trigrams = new HashMap<>();
+
+    // Rows are numbered; numbers of removed rows are reused
+    private final Map<Assignment, Integer> docIds = new IdentityHashMap<>();
+    private Assignment[] docs = new Assignment[0];
+    // Value of clock when each row was last added or edited
+    private long[] edited = new long[0];
+    // Each row's due date as an epoch day, read when ranking without visiting the row
+    private int[] dueDays = new int[0];
+    private int docLimit;
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private long clock;
+    private int generation;
+    private boolean built;
+
+    // Reused between queries: how many query words each row has matched (offset by epoch),
+    // its score so far, its best score for the current word, and the rows still in the running
+    private int[] marks = new int[0];
+    private int[] scores = new int[0];
+    private int[] termScores = new int[0];
+    private int[] hits = new int[0];
+    private int hitCount;
+    private int epoch;
+
+    private final AssignmentObserver observer = (assignment, field, oldValue, newValue) -> {
+        Integer doc = docIds.get(assignment);
+        if (doc == null) {
+            return;
+        }
+        switch (field) {
+            case TITLE -> reindex(doc, TITLE, (String) oldValue, (String) newValue);
+            case COURSE_NAME -> reindex(doc, COURSE, (String) oldValue, (String) newValue);
+            case DESCRIPTION -> reindex(doc, DESCRIPTION, (String) oldValue, (String) newValue);
+            case NOTES -> reindex(doc, NOTES, (String) oldValue, (String) newValue);
+            case DUE_DATE -> dueDays[doc] = dueDay((LocalDate) newValue);
+            default -> {
+            }
+        }
+    };
+
+    AssignmentSearchIndex(ObservableList<Assignment> assignments) {
+        this.assignments = assignments;
+        assignments.addListener(this::listChanged);
+    }
+
+    /**
+     * Find the best matches for a query. A word matched whole ranks above one matched at its
+     * start, which ranks above one matched inside; a match in the title counts most, then
+     * the course name. Equal scores are ordered by due date, then by when the row was indexed.
+     * @param query words to look for
+     * @param limit most results to return
+     * @return matching assignments, best first
+     */
+    List<Assignment> search(String query, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        match(terms);
+
+        // Scores are small, so counting them finds the lowest score that makes the cut;
+        // every row above it is kept and the rows at it compete on due date
+        int[] counts = new int[MAX_SCORE + 1];
+        for (int i = 0; i < hitCount; i++) {
+            counts[scores[hits[i]]]++;
+        }
+        int cut = MAX_SCORE;
+        int above = 0;
+        while (cut > 0 && above + counts[cut] < limit) {
+            above += counts[cut];
+            cut--;
+        }
+        List<Integer> ranked = new ArrayList<>(Math.min(limit, hitCount));
+        long[] earliest = new long[Math.max(0, Math.min(limit - above, counts[cut]))];
+        int kept = 0;
+        for (int i = 0; i < hitCount; i++) {
+            int doc = hits[i];
+            if (scores[doc] > cut) {
+                ranked.add(doc);
+            } else if (scores[doc] == cut && earliest.length > 0) {
+                long key = dueKey(doc);
+                if (kept < earliest.length) {
+                    earliest[kept++] = key;
+                    siftUp(earliest, kept - 1);
+                } else if (key < earliest[0]) {
+                    earliest[0] = key;
+                    siftDown(earliest, kept);
+                }
+            }
+        }
+        for (int i = 0; i < kept; i++) {
+            ranked.add((int) earliest[i]);
+        }
+        ranked.sort(Comparator.<Integer>comparingInt(doc -> -scores[doc]).thenComparingLong(this::dueKey));
+
+        List<Assignment> results = new ArrayList<>(ranked.size());
+        for (int doc : ranked) {
+            results.add(docs[doc]);
+        }
+        return results;
+    }
+
+    /**
+     * @return the row's due date in the high half and its number in the low half, so rows
+     *         order by due date, undated last, then by number
+     */
+    private long dueKey(int doc) {
+        return (long) dueDays[doc] << 32 | doc;
+    }
+
+    private static int dueDay(LocalDate due) {
+        return due == null ? Integer.MAX_VALUE
+                : (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE - 1, due.toEpochDay()));
+    }
+
+    // Max-heap of the earliest keys seen, latest on top
+
+    private static void siftUp(long[] heap, int at) {
+        while (at > 0) {
+            int parent = (at - 1) / 2;
+            if (heap[parent] >= heap[at]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[at];
+            heap[at] = swap;
+            at = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int at = 0;
+        while (true) {
+            int largest = at;
+            int left = 2 * at + 1;
+            if (left < size && heap[left] > heap[largest]) {
+                largest = left;
+            }
+            if (left + 1 < size && heap[left + 1] > heap[largest]) {
+                largest = left + 1;
+            }
+            if (largest == at) {
+                return;
+            }
+            long swap = heap[largest];
+            heap[largest] = heap[at];
+            heap[at] = swap;
+            at = largest;
+        }
+    }
+
+    /**
+     * Get a test for whether an assignment matches a query, answered from the rows matched
+     * now. A row added or edited later is checked against its text instead, so the test
+     * stays right for a filtered view that outlives the query.
+     * @param query words to look for
+     * @return a test that accepts every assignment if the query has no words
+     */
+    Predicate<Assignment> matcher(String query) {
+        String[] terms = terms(query);
+        if (terms.length == 0) {
+            return assignment -> true;
+        }
+        String normalized = String.join(" ", terms);
+        match(terms);
+        BitSet matched = new BitSet(docLimit);
+        for (int i = 0; i < hitCount; i++) {
+            matched.set(hits[i]);
+        }
+        long since = clock;
+        int indexGeneration = generation;
+        return assignment -> {
+            if (indexGeneration == generation) {
+                Integer doc = docIds.get(assignment);
+                if (doc != null && edited[doc] <= since) {
+                    return matched.get(doc);
+                }
+            }
+            return matches(assignment, normalized);
+        };
+    }
+
+    /**
+     * Check an assignment's text against a query the way the index does, without the index.
+     * @param query words to look for; one without any matches everything
+     * @return true if every word of the query matches in some field
+     */
+    static boolean matches(Assignment assignment, String query) {
+        int terms = 0;
+        int i = 0;
+        while (i < query.length() && terms < MAX_TERMS) {
+            if (!Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < query.length() && Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+            }
+            terms++;
+            if (!fieldMatches(assignment.getTitle(), query, start, i)
+                    && !fieldMatches(assignment.getCourseName(), query, start, i)
+                    && !fieldMatches(assignment.getDescription(), query, start, i)
+                    && !fieldMatches(assignment.getNotes(), query, start, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Compares in place, so checking a row allocates nothing
+    private static boolean fieldMatches(String text, String query, int termStart, int termEnd) {
+        if (text == null) {
+            return false;
+        }
+        int length = termEnd - termStart;
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int last = length >= TRIGRAM ? i - length : Math.min(start, i - length);
+            for (int at = start; at <= last; at++) {
+                if (foldedMatch(text, at, query, termStart, length)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean foldedMatch(String text, int at, String query, int from, int length) {
+        for (int k = 0; k < length; k++) {
+            if (fold(text.charAt(at + k)) != fold(query.charAt(from + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The one case folding used by the index and by {@link #matches}, a character at a time
+     * so a word keeps its length and both sides fold the same way.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Score every row against the query words, leaving the rows that match all of them in
+     * hits and their scores in scores.
+     */
+    private void match(String[] terms) {
+        if (!built) {
+            build();
+        }
+        if (marks.length < docLimit) {
+            int capacity = docs.length;
+            marks = new int[capacity];
+            scores = new int[capacity];
+            termScores = new int[capacity];
+            hits = new int[capacity];
+            epoch = 0;
+        }
+        if (epoch > Integer.MAX_VALUE - 2 * (MAX_TERMS + 1)) {
+            Arrays.fill(marks, 0);
+            epoch = 0;
+        }
+        epoch += MAX_TERMS + 1;
+        hitCount = 0;
+
+        for (int t = 0; t < terms.length; t++) {
+            hitCount = 0;
+            scoreTerm(t, terms[t]);
+            if (hitCount == 0) {
+                return;
+            }
+            for (int i = 0; i < hitCount; i++) {
+                scores[hits[i]] += termScores[hits[i]];
+            }
+        }
+    }
+
+    private void scoreTerm(int t, String term) {
+        if (term.length() >= TRIGRAM) {
+            // Only words sharing the query word's rarest trigram can contain it
+            WordList candidates = null;
+            for (int i = 0; i + TRIGRAM <= term.length(); i++) {
+                WordList list = trigrams.get(term.substring(i, i + TRIGRAM));
+                if (list == null) {
+                    return;
+                }
+                if (candidates == null || list.size < candidates.size) {
+                    candidates = list;
+                }
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                String word = candidates.words[i];
+                int at = word.indexOf(term);
+                if (at >= 0) {
+                    int kind = at > 0 ? INFIX : word.length() == term.length() ? EXACT : PREFIX;
+                    scorePostings(t, postings.get(word), kind);
+                }
+            }
+        } else {
+            for (Map.Entry<String, Postings> entry
+                    : words.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                scorePostings(t, entry.getValue(), entry.getKey().length() == term.length() ? EXACT : PREFIX);
+            }
+        }
+    }
+
+    private void scorePostings(int t, Postings list, int kind) {
+        for (int i = 0; i < list.size; i++) {
+            int doc = list.docs[i];
+            int weight = kind * fieldWeight(list.fields[i]);
+            int matched = marks[doc] >= epoch ? marks[doc] - epoch : 0;
+            if (matched == t) {
+                marks[doc] = epoch + t + 1;
+                termScores[doc] = weight;
+                if (t == 0) {
+                    scores[doc] = 0;
+                }
+                hits[hitCount++] = doc;
+            } else if (matched == t + 1 && termScores[doc] < weight) {
+                termScores[doc] = weight;
+            }
+        }
+    }
+
+    private static int fieldWeight(int fields) {
+        if ((fields & TITLE) != 0) {
+            return 3;
+        }
+        return (fields & COURSE) != 0 ? 2 : 1;
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        int size = assignments.size();
+        grow(size);
+        for (int i = 0; i < size; i++) {
+            add(assignments.get(i));
+        }
+        built = true;
+        System.out.println("Indexed " + size + " assignments for search in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Forget everything, to be rebuilt by the next search.
+     */
+    private void clear() {
+        for (Assignment assignment : docIds.keySet()) {
+            unwatch(assignment);
+        }
+        postings.clear();
+        words.clear();
+        trigrams.clear();
+        docIds.clear();
+        docs = new Assignment[0];
+        edited = new long[0];
+        dueDays = new int[0];
+        docLimit = 0;
+        freeCount = 0;
+        marks = new int[0];
+        scores = new int[0];
+        termScores = new int[0];
+        hits = new int[0];
+        built = false;
+        generation++;
+    }
+
+    private void listChanged(ListChangeListener.Change<? extends Assignment> change) {
+        if (!built) {
+            return;
+        }
+        if (ListChanges.isBulk(change, assignments.size())) {
+            clear();
+            return;
+        }
+        while (change.next()) {
+            if (change.wasPermutated() || change.wasUpdated()) {
+                // Rows are the same; edits arrive through the observer
+                continue;
+            }
+            for (Assignment assignment : change.getRemoved()) {
+                remove(assignment);
+            }
+            for (Assignment assignment : change.getAddedSubList()) {
+                add(assignment);
+            }
+        }
+    }
+
+    private void add(Assignment assignment) {
+        if (docIds.containsKey(assignment)) {
+            return;
+        }
+        int doc;
+        if (freeCount > 0) {
+            doc = freeIds[--freeCount];
+        } else {
+            grow(docLimit + 1);
+            doc = docLimit++;
+        }
+        docs[doc] = assignment;
+        docIds.put(assignment, doc);
+        edited[doc] = ++clock;
+        dueDays[doc] = dueDay(assignment.getDueDate());
+        addWords(doc, TITLE, assignment.getTitle());
+        addWords(doc, COURSE, assignment.getCourseName());
+        addWords(doc, DESCRIPTION, assignment.getDescription());
+        addWords(doc, NOTES, assignment.getNotes());
+        assignment.addObserver(observer);
+    }
+
+    private void remove(Assignment assignment) {
+        Integer doc = docIds.remove(assignment);
+        if (doc == null) {
+            return;
+        }
+        unwatch(assignment);
+        removeWords(doc, TITLE, assignment.getTitle());
+        removeWords(doc, COURSE, assignment.getCourseName());
+        removeWords(doc, DESCRIPTION, assignment.getDescription());
+        removeWords(doc, NOTES, assignment.getNotes());
+        docs[doc] = null;
+        edited[doc] = ++clock;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(16, freeIds.length * 2));
+        }
+        freeIds[freeCount++] = doc;
+    }
+
+    private void unwatch(Assignment assignment) {
+        assignment.removeObserver(observer);
+    }
+
+    private void grow(int capacity) {
+        if (capacity > docs.length) {
+            int length = Math.max(capacity, docs.length + (docs.length >> 1));
+            docs = Arrays.copyOf(docs, length);
+            edited = Arrays.copyOf(edited, length);
+            dueDays = Arrays.copyOf(dueDays, length);
+        }
+    }
+
+    /**
+     * Re-index one field of a row that changed, touching only the words that were added or
+     * dropped.
+     */
+    private void reindex(int doc, int field, String oldText, String newText) {
+        Set<String> oldWords = tokenize(oldText);
+        Set<String> newWords = tokenize(newText);
+        for (String word : oldWords) {
+            if (!newWords.contains(word)) {
+                removeWord(word, doc, field);
+            }
+        }
+        for (String word : newWords) {
+            if (!oldWords.contains(word)) {
+                addWord(word, doc, field);
+            }
+        }
+        edited[doc] = ++clock;
+    }
+
+    private void addWords(int doc, int field, String text) {
+        for (String word : tokenize(text)) {
+            addWord(word, doc, field);
+        }
+    }
+
+    private void removeWords(int doc, int field, String text) {
+        for (String word : tokenize(text)) {
+            removeWord(word, doc, field);
+        }
+    }
+
+    private void addWord(String word, int doc, int field) {
+        Postings list = postings.get(word);
+        if (list == null) {
+            list = new Postings();
+            postings.put(word, list);
+            words.put(word, list);
+            for (int i = 0; i + TRIGRAM <= word.length(); i++) {
+                String trigram = word.substring(i, i + TRIGRAM);
+                // A trigram repeated within the word lists it once
+                if (word.indexOf(trigram) == i) {
+                    trigrams.computeIfAbsent(trigram, key -> new WordList()).add(word);
+                }
+            }
+        }
+        list.add(doc, field);
+    }
+
+    private void removeWord(String word, int doc, int field) {
+        Postings list = postings.get(word);
+        if (list == null || !list.remove(doc, field)) {
+            return;
+        }
+        postings.remove(word);
+        words.remove(word);
+        for (int i = 0; i + TRIGRAM <= word.length(); i++) {
+            String trigram = word.substring(i, i + TRIGRAM);
+            WordList containing = trigrams.get(trigram);
+            if (containing != null && containing.remove(word) && containing.size == 0) {
+                trigrams.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * @return the distinct words of a query, in order, at most {@value #MAX_TERMS}
+     */
+    private static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        return tokenize(query).stream().limit(MAX_TERMS).toArray(String[]::new);
+    }
+
+    private static Set<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            char[] word = new char[i - start];
+            for (int k = 0; k < word.length; k++) {
+                word[k] = fold(text.charAt(start + k));
+            }
+            words.add(new String(word));
+        }
+        return words;
+    }
+
+    /**
+     * Rows containing one word, sorted by row number, with the fields it appears in.
+     */
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        void add(int doc, int field) {
+            // Building appends in row order; only edits and reused numbers land in the middle
+            int at = size > 0 && docs[size - 1] < doc ? -size - 1 : Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                fields[at] |= (byte) field;
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(fields, at, fields, at + 1, size - at);
+            docs[at] = doc;
+            fields[at] = (byte) field;
+            size++;
+        }
+
+        /**
+         * @return true if no row contains the word any more
+         */
+        boolean remove(int doc, int field) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                fields[at] &= (byte) ~field;
+                if (fields[at] == 0) {
+                    System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                    System.arraycopy(fields, at + 1, fields, at, size - at - 1);
+                    size--;
+                }
+            }
+            return size == 0;
+        }
+    }
+
+    /**
+     * An unordered list of words.
+     */
+    private static final class WordList {
+        private String[] words = new String[4];
+        private int size;
+
+        void add(String word) {
+            if (size == words.length) {
+                words = Arrays.copyOf(words, size * 2);
+            }
+            words[size++] = word;
+        }
+
+        boolean remove(String word) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(words[i], word)) {
+                    words[i] = words[--size];
+                    words[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.LazyAssignmentList;
+import com.jscheduler.model.Semester;
+import com.jscheduler.util.StringPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary semester snapshot.
+ *
+ * <pre>
+ * header      magic "JSCB", u16 version
+ * strings     i32 count, then per string: i32 byte length (-1 = null), UTF-8 bytes
+ * semester    i32 string ref of the semester name
+ * courses     i32 count, then per course: i32 record length, record
+ * assignments i32 count, then per assignment: i32 record length, record
+ *
+ * course      i32 refs: id, name, description, professor, semester
+ * assignment  i32 due epoch day, i32 deadline epoch day, u8 status ordinal,
+ *             i32 course id ref, inline strings: id, title, description, notes
+ * </pre>
+ *
+ * Values repeated across rows (course ids, names, professors, semester names) are written
+ * once in the string table and referenced by index. Dates are epoch days with
+ * {@link #NO_DATE} for null. The fixed-width assignment fields come first so a reader can
+ * find them at a constant offset, and the length prefix lets readers skip records and
+ * ignore fields appended by later versions.
+ */
+final class BinarySnapshotCodec {
+    static final int MAGIC = 0x4A534342; // "JSCB"
+    static final int VERSION = 1;
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NULL_REF = -1;
+
+    private static final AssignmentStatus[] STATUSES = AssignmentStatus.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    /**
+     * @return true if the first bytes of a file are this format's magic number
+     */
+    static boolean matches(byte[] header) {
+        return header.length >= 4
+                && ((header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16
+                | (header[2] & 0xFF) << 8 | (header[3] & 0xFF)) == MAGIC;
+    }
+
+    static void write(OutputStream output, Semester semester) throws IOException {
+        LazyAssignmentList lazy = semester.getLazyAssignments();
+        MappedSnapshot mapped = lazy != null && lazy.getSource() instanceof MappedSnapshot source ? source : null;
+        // Built afresh from the strings still in use; records copied from the mapped
+        // snapshot have their one reference, the course id, pointed at this table.
+        StringTable table = new StringTable();
+        int nameRef = table.ref(semester.getName());
+        for (Course course : semester.getCourses()) {
+            table.ref(course.getId());
+            table.ref(course.getName());
+            table.ref(course.getDescription());
+            table.ref(course.getProfessor());
+            table.ref(course.getSemester());
+        }
+        List<Assignment> assignments = semester.getAssignments();
+        for (int i = 0; i < assignments.size(); i++) {
+            table.ref(isVerbatim(mapped, lazy, i) ? lazy.courseIdAt(i) : assignments.get(i).getCourseId());
+        }
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        out.writeInt(table.strings.size());
+        for (String value : table.strings) {
+            writeString(out, value);
+        }
+        out.writeInt(nameRef);
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+
+        out.writeInt(semester.getCourses().size());
+        for (Course course : semester.getCourses()) {
+            recordBytes.reset();
+            record.writeInt(table.ref(course.getId()));
+            record.writeInt(table.ref(course.getName()));
+            record.writeInt(table.ref(course.getDescription()));
+            record.writeInt(table.ref(course.getProfessor()));
+            record.writeInt(table.ref(course.getSemester()));
+            out.writeInt(recordBytes.size());
+            recordBytes.writeTo(out);
+        }
+
+        out.writeInt(assignments.size());
+        for (int i = 0; i < assignments.size(); i++) {
+            if (isVerbatim(mapped, lazy, i)) {
+                mapped.copyRecord(lazy.ordinalAt(i), table.ref(lazy.courseIdAt(i)), out);
+                continue;
+            }
+            Assignment assignment = assignments.get(i);
+            recordBytes.reset();
+            record.writeInt(toEpochDay(assignment.getDueDate()));
+            record.writeInt(toEpochDay(assignment.getSubmissionDeadline()));
+            AssignmentStatus status = assignment.getStatus() != null ? assignment.getStatus() : AssignmentStatus.NOT_STARTED;
+            record.writeByte(status.ordinal());
+            record.writeInt(table.ref(assignment.getCourseId()));
+            writeString(record, assignment.getId());
+            writeString(record, assignment.getTitle());
+            writeString(record, assignment.getDescription());
+            writeString(record, assignment.getNotes());
+            out.writeInt(recordBytes.size());
+            recordBytes.writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * @return true if the row is still the undecoded record read from the mapped snapshot
+     */
+    private static boolean isVerbatim(MappedSnapshot mapped, LazyAssignmentList lazy, int index) {
+        return mapped != null && lazy.ordinalAt(index) >= 0 && !lazy.isMaterialized(index);
+    }
+
+    static Semester read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary semester snapshot");
+        }
+        int version = in.readUnsignedShort();
+        if (version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = StringPool.getInstance().canonical(readString(in));
+        }
+        Semester semester = new Semester(lookup(strings, in.readInt()));
+
+        try {
+            RecordReader records = new RecordReader(in);
+            int courseCount = in.readInt();
+            for (int i = 0; i < courseCount; i++) {
+                semester.addCourse(decodeCourse(records.next(), strings));
+            }
+
+            int assignmentCount = in.readInt();
+            for (int i = 0; i < assignmentCount; i++) {
+                semester.addAssignment(decodeAssignment(records.next(), strings));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated snapshot record", e);
+        }
+        return semester;
+    }
+
+    /**
+     * Decode a course record starting at the buffer's position.
+     */
+    static Course decodeCourse(ByteBuffer record, String[] strings) throws IOException {
+        return new Course(
+                lookup(strings, record.getInt()),
+                lookup(strings, record.getInt()),
+                lookup(strings, record.getInt()),
+                lookup(strings, record.getInt()),
+                lookup(strings, record.getInt())
+        );
+    }
+
+    /**
+     * Decode an assignment record starting at the buffer's position.
+     */
+    static Assignment decodeAssignment(ByteBuffer record, String[] strings) throws IOException {
+        LocalDate dueDate = fromEpochDay(record.getInt());
+        LocalDate deadline = fromEpochDay(record.getInt());
+        AssignmentStatus status = toStatus(record.get() & 0xFF);
+        String courseId = lookup(strings, record.getInt());
+        String id = decodeString(record);
+        // Free text is left out of the pool; see StringPool
+        String title = decodeString(record);
+        String description = decodeString(record);
+        String notes = decodeString(record);
+        return new Assignment(id, courseId, title, description, dueDate, deadline, status, notes);
+    }
+
+    /**
+     * Reads length-prefixed records into one reusable buffer.
+     */
+    private static final class RecordReader {
+        private final DataInputStream in;
+        private byte[] buffer = new byte[256];
+
+        RecordReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return a view of the next record, valid until the following call
+         */
+        ByteBuffer next() throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Bad record length " + length);
+            }
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            return ByteBuffer.wrap(buffer, 0, length);
+        }
+    }
+
+    static int toEpochDay(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : NO_DATE;
+    }
+
+    static LocalDate fromEpochDay(int epochDay) {
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    static AssignmentStatus toStatus(int ordinal) {
+        return ordinal < STATUSES.length ? STATUSES[ordinal] : AssignmentStatus.NOT_STARTED;
+    }
+
+    static String lookup(String[] strings, int ref) throws IOException {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        if (ref < 0 || ref >= strings.length) {
+            throw new IOException("Bad string reference " + ref);
+        }
+        return strings[ref];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    static String decodeString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Assigns each distinct string an index in first-seen order.
+     */
+    private static final class StringTable {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> refs = new HashMap<>();
+
+        int ref(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = strings.size();
+                strings.add(value);
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.LazyAssignmentList;
+import com.jscheduler.util.FxThreads;
+import com.jscheduler.util.LongMap;
+import javafx.concurrent.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes assignments' due dates and submission deadlines to an iCalendar file as all-day
+ * events, for calendar apps to import or subscribe to. The rows to export are taken from the
+ * data service in one step, then read a chunk at a time and written as they are read, so
+ * the document is never held in memory. Rows not yet decoded are read from the snapshot
+ * without being kept.
+ *
+ * <p>An exporter remembers, for each assignment in the last file it wrote, a hash of the
+ * fields its events show and where those events sit in the file. The next export to the
+ * same file re-encodes only assignments whose hash changed and copies the rest from the
+ * old file, run by run, so refreshing a large feed costs little more than a file copy, and
+ * nothing when no event changed. If the file was changed by anything else in between, every
+ * event is encoded afresh.
+ *
+ * <p>Events carry the course as CATEGORIES, the notes as COMMENT, and the status and
+ * deadline as X-JSCHEDULER- properties, so {@link AssignmentImporter} reads the file back
+ * into the same assignments.
+ */
+public final class CalendarExporter {
+    static final String STATUS_PROPERTY = "X-JSCHEDULER-STATUS";
+    static final String DEADLINE_PROPERTY = "X-JSCHEDULER-DEADLINE";
+    // Marks the event for a submission deadline, which the importer skips
+    static final String KIND_PROPERTY = "X-JSCHEDULER-KIND";
+    static final String DEADLINE_KIND = "DEADLINE";
+
+    // Assignments read per visit to the FX thread
+    private static final int CHUNK_SIZE = 5000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Longest line in octets before it is folded onto the next
+    private static final int LINE_LIMIT = 75;
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss'Z'");
+    private static final byte[] HEADER = ("BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//JScheduler//Deadlines//EN\r\n"
+            + "CALSCALE:GREGORIAN\r\n"
+            + "X-WR-CALNAME:Assignments\r\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOOTER = "END:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * What an export did.
+     * @param assignments assignments written
+     * @param regenerated those whose events were encoded rather than copied
+     * @param bytes size of the file
+     * @param millis time taken
+     */
+    public record Summary(int assignments, int regenerated, long bytes, long millis) {
+
+        @Override
+        public String toString() {
+            return "Exported " + assignments + " assignments (" + regenerated + " changed) in " + millis + " ms";
+        }
+    }
+
+    /**
+     * An assignment's events in the last file: the hash they were made from and their place.
+     */
+    private record Entry(long hash, long offset, int length) {
+    }
+
+    /**
+     * One assignment's events for the file being written: freshly encoded bytes, or null
+     * to copy them from the old file.
+     */
+    private record Piece(long key, long hash, byte[] encoded, Entry previous) {
+    }
+
+    private final Path file;
+    // Keyed by assignment id, in its numeric form
+    private LongMap<Entry> entries = new LongMap<>();
+    // The file as last written, to notice changes made by anything else
+    private long writtenSize = -1;
+    private FileTime writtenTime;
+
+    public CalendarExporter(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Export on a background thread, reading assignments on the FX thread a chunk at a time.
+     * @return the running task, with the summary as its message when done
+     */
+    public Task<Summary> exportAsync(DataService dataService) {
+        Task<Summary> task = new Task<>() {
+            @Override
+            protected Summary call() throws IOException, InterruptedException {
+                Summary summary = export(dataService, FxThreads::runAndWait);
+                updateMessage(summary.toString());
+                return summary;
+            }
+        };
+        Thread.ofVirtual().name("jscheduler-exporter").start(task);
+        return task;
+    }
+
+    /**
+     * Export on the calling thread, reading the data service only on the model thread. The
+     * file is replaced in one step once complete.
+     */
+    synchronized Summary export(DataService dataService, ModelThread modelThread)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean reuse = writtenTime != null && Files.exists(file)
+                && Files.size(file) == writtenSize && Files.getLastModifiedTime(file).equals(writtenTime);
+        LongMap<Entry> previous = reuse ? entries : new LongMap<>();
+        LongMap<Entry> written = new LongMap<>(previous.size());
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(STAMP);
+        int regenerated = 0;
+        // True while every assignment's events are unchanged and where they were
+        boolean unchanged = reuse;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel old = reuse ? FileChannel.open(file, StandardOpenOption.READ) : null) {
+            Output output = new Output(out, old);
+            output.write(HEADER);
+
+            AtomicReference<List<Assignment>> snapshot = new AtomicReference<>();
+            modelThread.run(() -> {
+                // Chunks of the live list would shift under deletions made between visits;
+                // copying a lazy list decodes none of its rows
+                LazyAssignmentList lazy = dataService.getCurrentSemester().getLazyAssignments();
+                snapshot.set(lazy != null ? lazy.copy() : new ArrayList<>(dataService.getAssignments()));
+            });
+            List<Assignment> rows = snapshot.get();
+            for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+                int chunkStart = from;
+                List<Piece> pieces = new ArrayList<>(CHUNK_SIZE);
+                modelThread.run(() -> {
+                    int to = Math.min(rows.size(), chunkStart + CHUNK_SIZE);
+                    for (int i = chunkStart; i < to; i++) {
+                        Assignment assignment = read(dataService, rows, i);
+                        long hash = hash(assignment);
+                        Entry entry = previous.get(assignment.getKey());
+                        pieces.add(entry != null && entry.hash() == hash
+                                ? new Piece(assignment.getKey(), hash, null, entry)
+                                : new Piece(assignment.getKey(), hash, encode(assignment, stamp), null));
+                    }
+                });
+                for (Piece piece : pieces) {
+                    long offset = output.position();
+                    int length;
+                    if (piece.encoded() != null) {
+                        output.write(piece.encoded());
+                        length = piece.encoded().length;
+                        regenerated++;
+                    } else {
+                        output.copy(piece.previous().offset(), piece.previous().length());
+                        length = piece.previous().length();
+                        unchanged &= piece.previous().offset() == offset;
+                    }
+                    unchanged &= piece.encoded() == null;
+                    written.put(piece.key(), new Entry(piece.hash(), offset, length));
+                }
+            }
+            unchanged &= written.size() == previous.size();
+            if (!unchanged) {
+                output.write(FOOTER);
+                output.finish();
+            }
+        }
+        if (unchanged) {
+            // The old file is what would be written; copies are deferred, so nothing was
+            Files.delete(temp);
+            return new Summary(written.size(), 0, writtenSize, (System.nanoTime() - start) / 1_000_000);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        entries = written;
+        writtenSize = Files.size(file);
+        writtenTime = Files.getLastModifiedTime(file);
+        return new Summary(written.size(), regenerated, writtenSize, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Assignment read(DataService dataService, List<Assignment> rows, int index) {
+        if (rows instanceof LazyAssignmentList lazy && !lazy.isMaterialized(index)) {
+            Assignment copy = lazy.detachedAt(index);
+            DataService.resolveCourseName(dataService.getCurrentSemester(), copy);
+            return copy;
+        }
+        return rows.get(index);
+    }
+
+    /**
+     * Hash every field the assignment's events show.
+     */
+    private static long hash(Assignment assignment) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ assignment.getKey()) * 0x100000001b3L;
+        hash = mix(hash, assignment.getTitle());
+        hash = mix(hash, assignment.getCourseName());
+        hash = mix(hash, assignment.getDescription());
+        hash = mix(hash, assignment.getNotes());
+        AssignmentStatus status = assignment.getStatus();
+        hash = (hash ^ (status != null ? status.ordinal() : -1)) * 0x100000001b3L;
+        hash = mix(hash, assignment.getDueDate());
+        hash = mix(hash, assignment.getSubmissionDeadline());
+        return hash;
+    }
+
+    private static long mix(long hash, String text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return (hash ^ 0x1f) * 0x100000001b3L;
+    }
+
+    private static long mix(long hash, LocalDate date) {
+        return (hash ^ (date != null ? date.toEpochDay() : Long.MIN_VALUE)) * 0x100000001b3L;
+    }
+
+    /**
+     * @return the assignment's events: one on its due date and one on its submission
+     *         deadline, each present only if the date is set
+     */
+    private static byte[] encode(Assignment assignment, String stamp) {
+        LocalDate due = assignment.getDueDate();
+        LocalDate deadline = assignment.getSubmissionDeadline();
+        if (due == null && deadline == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        if (due != null) {
+            writeEvent(out, assignment, "due", due, assignment.getTitle(), stamp);
+            if (deadline != null) {
+                line(out, DEADLINE_PROPERTY, deadline.format(BASIC_DATE));
+            }
+            line(out, "END", "VEVENT");
+        }
+        if (deadline != null) {
+            writeEvent(out, assignment, "deadline", deadline, assignment.getTitle() + " (submission deadline)", stamp);
+            line(out, KIND_PROPERTY, DEADLINE_KIND);
+            line(out, "END", "VEVENT");
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Write an event's opening and common properties; the caller ends it.
+     */
+    private static void writeEvent(ByteArrayOutputStream out, Assignment assignment, String kind,
+                                   LocalDate date, String summary, String stamp) {
+        line(out, "BEGIN", "VEVENT");
+        line(out, "UID", assignment.getId() + "-" + kind + "@jscheduler");
+        line(out, "DTSTAMP", stamp);
+        line(out, "DTSTART;VALUE=DATE", date.format(BASIC_DATE));
+        line(out, "DTEND;VALUE=DATE", date.plusDays(1).format(BASIC_DATE));
+        line(out, "SUMMARY", escape(summary));
+        textLine(out, "CATEGORIES", assignment.getCourseName());
+        textLine(out, "DESCRIPTION", assignment.getDescription());
+        textLine(out, "COMMENT", assignment.getNotes());
+        if (assignment.getStatus() != null) {
+            line(out, STATUS_PROPERTY, assignment.getStatus().getDisplayName());
+        }
+        line(out, "TRANSP", "TRANSPARENT");
+    }
+
+    private static void textLine(ByteArrayOutputStream out, String name, String text) {
+        if (text != null && !text.isEmpty()) {
+            line(out, name, escape(text));
+        }
+    }
+
+    /**
+     * Write a content line, folded so no line exceeds {@value #LINE_LIMIT} octets and no
+     * character is split across lines.
+     */
+    private static void line(ByteArrayOutputStream out, String name, String value) {
+        byte[] bytes = (name + ":" + value).getBytes(StandardCharsets.UTF_8);
+        int lineStart = 0;
+        int limit = LINE_LIMIT;
+        while (bytes.length - lineStart > limit) {
+            int end = lineStart + limit;
+            // Back up to the start of a UTF-8 character
+            while ((bytes[end] & 0xC0) == 0x80) {
+                end--;
+            }
+            out.write(bytes, lineStart, end - lineStart);
+            out.write('\r');
+            out.write('\n');
+            out.write(' ');
+            lineStart = end;
+            limit = LINE_LIMIT - 1;
+        }
+        out.write(bytes, lineStart, bytes.length - lineStart);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * The file being written: bytes go through a buffer, and events copied from the old
+     * file are gathered into runs and transferred channel to channel.
+     */
+    private static final class Output {
+        private final FileChannel out;
+        private final FileChannel old;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long flushed;
+        private long runStart;
+        private long runLength;
+
+        Output(FileChannel out, FileChannel old) {
+            this.out = out;
+            this.old = old;
+        }
+
+        long position() {
+            return flushed + buffer.position() + runLength;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            endRun();
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+            buffer.put(bytes);
+        }
+
+        void copy(long offset, long length) throws IOException {
+            if (runLength > 0 && runStart + runLength == offset) {
+                runLength += length;
+                return;
+            }
+            endRun();
+            flush();
+            runStart = offset;
+            runLength = length;
+        }
+
+        void finish() throws IOException {
+            endRun();
+            flush();
+        }
+
+        private void endRun() throws IOException {
+            if (runLength == 0) {
+                return;
+            }
+            flush();
+            long done = 0;
+            while (done < runLength) {
+                long transferred = old.transferTo(runStart + done, runLength - done, out);
+                if (transferred <= 0) {
+                    throw new IOException("Calendar file shrank while its events were copied");
+                }
+                done += transferred;
+            }
+            flushed += runLength;
+            runLength = 0;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                flushed += out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.jscheduler.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of the changes made since the last full snapshot, one record per line.
+ * Replaying it on top of the snapshot reproduces the current state.
+ */
+class ChangeJournal {
+    private final Path path;
+    private volatile int recordCount;
+
+    ChangeJournal(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    void append(List<String> records) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+        }
+        recordCount += records.size();
+    }
+
+    /**
+     * Feed every record to the consumer in the order it was written.
+     * @param consumer receives each non-blank line
+     * @return number of records replayed
+     */
+    int replay(Consumer<String> consumer) throws IOException {
+        int count = 0;
+        if (exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        consumer.accept(line);
+                        count++;
+                    }
+                }
+            }
+        }
+        recordCount = count;
+        return count;
+    }
+
+    /**
+     * Drop all records once they are covered by a snapshot.
+     */
+    void truncate() throws IOException {
+        Files.deleteIfExists(path);
+        recordCount = 0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.jscheduler.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads comma-separated records one at a time, as RFC 4180 writes them: fields may be
+ * quoted, and a quoted field may hold commas, doubled quotes and line breaks. The first
+ * record names the columns; each later record is handed out keyed by those names in lower
+ * case. Only the current record is held, so files of any length read in constant memory.
+ */
+final class CsvRecordReader implements ImportRecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> values = new ArrayList<>();
+    private List<String> header;
+
+    CsvRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    public boolean next(Map<String, String> record) throws IOException {
+        if (header == null) {
+            if (!readRecord()) {
+                return false;
+            }
+            header = new ArrayList<>(values.size());
+            for (String name : values) {
+                header.add(name.strip().toLowerCase(Locale.ROOT));
+            }
+        }
+        while (readRecord()) {
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            record.clear();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                record.put(header.get(i), values.get(i));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read the next record's fields into values.
+     * @return false at the end of the input
+     */
+    private boolean readRecord() throws IOException {
+        values.clear();
+        field.setLength(0);
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        if (c == '\uFEFF' && header == null) {
+            // Byte order mark written by spreadsheet exports
+            c = read();
+        }
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    values.add(field.toString());
+                    return true;
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                values.add(wasQuoted ? field.toString() : field.toString().strip());
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                return true;
+            } else if (c == ',') {
+                values.add(wasQuoted ? field.toString() : field.toString().strip());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '"' && !wasQuoted && isBlank(field)) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -1,31 +1,75 @@
 package com.jscheduler.service;
 
 import com.jscheduler.model.Assignment;
-import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.AssignmentsByCourse;
 import com.jscheduler.model.Course;
+import com.jscheduler.model.LazyAssignmentList;
 import com.jscheduler.model.Semester;
-import javafx.collections.FXCollections;
+import com.jscheduler.util.BackedObservableList;
+import com.jscheduler.util.FxThreads;
+import com.jscheduler.util.StringPool;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class DataService {
     private static DataService instance;
 
-    private final JsonPersistenceService persistenceService;
+    // Assignments handed to the FX thread per batch while loading
+    private static final int PUBLISH_BATCH_SIZE = 1000;
+    // Share of the progress bar given to reading the file; the rest covers publishing rows
+    private static final double READ_SHARE = 0.8;
+
+    private final StorageBackend storage;
+    private final WriteBehindSaver saver;
     private Semester currentSemester;
 
-    private final ObservableList<Course> courses;
-    private final ObservableList<Assignment> assignments;
+    private final BackedObservableList<Course> courses;
+    private final BackedObservableList<Assignment> assignments;
+    // The list behind assignments when the snapshot is decoded on demand, otherwise null
+    private LazyAssignmentList lazyAssignments;
+    private final AssignmentSearchIndex searchIndex;
+    private final DueDateIndex dueDates;
+    private final AssignmentsByCourse byCourse;
 
     private DataService() {
-        this.persistenceService = new JsonPersistenceService();
-        this.courses = FXCollections.observableArrayList();
-        this.assignments = FXCollections.observableArrayList();
-        loadData();
+        this(StorageBackends.fromConfig(), false);
+    }
+
+    /**
+     * Create a service that has already loaded its data, for callers off the FX thread.
+     */
+    DataService(StorageBackend storage) {
+        this(storage, true);
+    }
+
+    private DataService(StorageBackend storage, boolean loadNow) {
+        this.storage = storage;
+        this.saver = new WriteBehindSaver(storage,
+                StorageConfig.getInstance().getInt("storage.save.debounceMillis", 500));
+        this.courses = new BackedObservableList<>();
+        this.assignments = new BackedObservableList<>();
+        this.searchIndex = new AssignmentSearchIndex(assignments);
+        this.dueDates = new DueDateIndex(assignments);
+        this.byCourse = new AssignmentsByCourse(assignments);
+        if (loadNow) {
+            Semester semester = readSemester(fraction -> { });
+            installSemester(semester);
+            if (lazyAssignments == null) {
+                assignments.addAll(semester.getAssignments());
+            }
+        }
     }
 
     public static DataService getInstance() {
@@ -38,25 +82,28 @@ public class DataService {
     public void addCourse(Course course) {
         currentSemester.addCourse(course);
         courses.add(course);
-        saveData();
+        persist(() -> storage.courseSaved(course));
     }
 
     public void updateCourse(Course course) {
-        saveData();
+        persist(() -> storage.courseSaved(course));
     }
 
     public void deleteCourse(Course course) {
-        List<Assignment> toRemove = new ArrayList<>();
-        for (Assignment a : assignments) {
-            if (a.getCourseId().equals(course.getId())) {
-                toRemove.add(a);
-            }
+        if (lazyAssignments != null) {
+            // removeAll would decode every row to compare it; match on the raw course id. Only
+            // the removed rows are decoded, as the change reports them to the indexes.
+            assignments.removeRuns(runs -> lazyAssignments.removeByCourseId(course.getId(), runs));
+            currentSemester.removeCourse(course.getId());
+        } else {
+            // The course's rows come from its bucket, so no row is compared by course id
+            Set<Assignment> toRemove = identitySet();
+            toRemove.addAll(byCourse.view(course.getId()));
+            assignments.removeEach(toRemove);
+            currentSemester.removeCourse(course.getId(), toRemove);
         }
-        assignments.removeAll(toRemove);
-
-        currentSemester.removeCourse(course.getId());
         courses.remove(course);
-        saveData();
+        persist(() -> storage.courseRemoved(course.getId()));
     }
 
     public void addAssignment(Assignment assignment) {
@@ -66,17 +113,132 @@ public class DataService {
         }
         currentSemester.addAssignment(assignment);
         assignments.add(assignment);
-        saveData();
+        persist(() -> storage.assignmentSaved(assignment));
     }
 
     public void updateAssignment(Assignment assignment) {
-        saveData();
+        int index = assignments.indexOf(assignment);
+        if (index >= 0) {
+            assignments.fireUpdated(index);
+        }
+        persist(() -> storage.assignmentSaved(assignment));
     }
 
     public void deleteAssignment(Assignment assignment) {
-        currentSemester.removeAssignment(assignment.getId());
+        currentSemester.removeAssignment(assignment.getKey());
         assignments.remove(assignment);
-        saveData();
+        persist(() -> storage.assignmentRemoved(assignment.getId()));
+    }
+
+    /**
+     * Make many edits at once. The edits are collected first and applied in order when
+     * the consumer returns, so if it throws nothing changes. Each observable list then
+     * reports one change, so views and indexes catch up once, and the edits are saved
+     * together.
+     * @param edits collects the edits to make
+     */
+    public void batch(Consumer<EditBatch> edits) {
+        EditBatch batch = new EditBatch();
+        edits.accept(batch);
+        if (batch.size() == 0) {
+            return;
+        }
+
+        List<Course> addedCourses = new ArrayList<>();
+        List<Course> deletedCourses = new ArrayList<>();
+        Set<String> deletedCourseIds = new HashSet<>();
+        List<Assignment> added = new ArrayList<>();
+        Set<Assignment> updated = identitySet();
+        Set<Assignment> deleted = identitySet();
+        List<Supplier<StorageBackend.Change>> changes = new ArrayList<>(batch.size());
+        for (EditBatch.Edit edit : batch.edits()) {
+            Course course = edit.course();
+            Assignment assignment = edit.assignment();
+            switch (edit.kind()) {
+                case ADD_COURSE -> {
+                    currentSemester.addCourse(course);
+                    addedCourses.add(course);
+                    changes.add(() -> storage.courseSaved(course));
+                }
+                case UPDATE_COURSE -> changes.add(() -> storage.courseSaved(course));
+                case DELETE_COURSE -> {
+                    if (!addedCourses.remove(course)) {
+                        deletedCourses.add(course);
+                    }
+                    deletedCourseIds.add(course.getId());
+                    changes.add(() -> storage.courseRemoved(course.getId()));
+                }
+                case ADD_ASSIGNMENT -> {
+                    Course owner = findCourseById(assignment.getCourseId());
+                    if (owner != null) {
+                        assignment.setCourseName(owner.getName());
+                    }
+                    currentSemester.addAssignment(assignment);
+                    added.add(assignment);
+                    changes.add(() -> storage.assignmentSaved(assignment));
+                }
+                case UPDATE_ASSIGNMENT -> {
+                    updated.add(assignment);
+                    changes.add(() -> storage.assignmentSaved(assignment));
+                }
+                case DELETE_ASSIGNMENT -> {
+                    deleted.add(assignment);
+                    changes.add(() -> storage.assignmentRemoved(assignment.getId()));
+                }
+            }
+        }
+
+        // A deleted course takes its rows with it, those added in this batch included
+        for (Assignment assignment : added) {
+            if (deletedCourseIds.contains(assignment.getCourseId())) {
+                deleted.add(assignment);
+            }
+        }
+        added.removeIf(deleted::contains);
+        if (lazyAssignments == null) {
+            for (String courseId : deletedCourseIds) {
+                deleted.addAll(byCourse.view(courseId));
+            }
+        }
+        updated.removeAll(deleted);
+        added.forEach(updated::remove);
+
+        for (String courseId : deletedCourseIds) {
+            if (lazyAssignments != null) {
+                currentSemester.removeCourse(courseId);
+            } else {
+                currentSemester.removeCourse(courseId, Set.of());
+            }
+        }
+        currentSemester.removeAssignments(deleted);
+
+        courses.batch(() -> {
+            courses.removeAll(deletedCourses);
+            courses.addAll(addedCourses);
+        });
+        assignments.batch(() -> {
+            if (lazyAssignments == null) {
+                assignments.removeEach(deleted);
+            } else {
+                // Decoded rows are compared by identity; the rest can only go with their course
+                for (int i = assignments.size() - 1; i >= 0; i--) {
+                    if (deletedCourseIds.contains(lazyAssignments.courseIdAt(i))
+                            || (lazyAssignments.isMaterialized(i) && deleted.contains(assignments.get(i)))) {
+                        assignments.remove(i);
+                    }
+                }
+            }
+            assignments.addAll(added);
+            if (!updated.isEmpty()) {
+                for (int i = 0; i < assignments.size(); i++) {
+                    if ((lazyAssignments == null || lazyAssignments.isMaterialized(i))
+                            && updated.contains(assignments.get(i))) {
+                        assignments.fireUpdated(i);
+                    }
+                }
+            }
+        });
+        persist(changes);
     }
 
     public ObservableList<Course> getCourses() {
@@ -87,48 +249,245 @@ public class DataService {
         return assignments;
     }
 
+    /**
+     * Get one course's assignments as a live, read-only list that follows adds, removals,
+     * edits and course changes, without scanning the other courses' rows.
+     * @param courseId the course
+     * @return the same list on every call for the course
+     */
+    public ObservableList<Assignment> getCourseAssignments(String courseId) {
+        return byCourse.view(courseId);
+    }
+
+    /**
+     * @return true if assignments are decoded from the snapshot as they are first read, so
+     *         views that read every row, such as a FilteredList, decode them all
+     */
+    public boolean isDecodingOnDemand() {
+        return lazyAssignments != null;
+    }
+
+    /**
+     * Find the assignments best matching some words, from the full-text index. Each word
+     * must appear at the start of, or from three letters on anywhere in, a word of the
+     * title, course name, description or notes. The first search builds the index, which
+     * reads every assignment.
+     * @param query words to look for
+     * @param limit most results to return
+     * @return matches ranked by where and how fully each word matched, then by due date
+     */
+    public List<Assignment> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Get a test matching assignments the way {@link #search} does, for a filtered view.
+     * It is answered from the index and stays correct as assignments are added and edited.
+     * @param query words to look for
+     * @return a test accepting every assignment if the query has no words
+     */
+    public Predicate<Assignment> searchMatcher(String query) {
+        return searchIndex.matcher(query);
+    }
+
     public Semester getCurrentSemester() {
         return currentSemester;
     }
 
     public Course findCourseById(String id) {
-        return courses.stream()
-                .filter(c -> c.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return currentSemester.findCourseById(id);
     }
 
-    private void loadData() {
-        currentSemester = persistenceService.load();
-        if (currentSemester == null) {
-            currentSemester = new Semester("Fall 2026");
-        }
+    /**
+     * Load the saved semester on a background thread. The file is read and the journal
+     * replayed off the FX thread, then courses are published at once and assignments in
+     * batches, so the window paints immediately and the table fills as rows arrive.
+     * Mutators must not be called until the task has succeeded.
+     * @return the running task, reporting progress and a status message
+     */
+    public Task<Semester> loadAsync() {
+        Task<Semester> task = new Task<>() {
+            @Override
+            protected Semester call() throws InterruptedException {
+                updateMessage("Loading\u2026");
+                Semester semester = readSemester(fraction -> updateProgress(fraction * READ_SHARE, 1));
+                FxThreads.runAndWait(() -> installSemester(semester));
 
-        courses.setAll(currentSemester.getCourses());
-        assignments.setAll(currentSemester.getAssignments());
+                if (semester.getLazyAssignments() == null) {
+                    List<Assignment> loaded = semester.getAssignments();
+                    int total = loaded.size();
+                    for (int from = 0; from < total; from += PUBLISH_BATCH_SIZE) {
+                        if (isCancelled()) {
+                            break;
+                        }
+                        int to = Math.min(total, from + PUBLISH_BATCH_SIZE);
+                        List<Assignment> batch = new ArrayList<>(loaded.subList(from, to));
+                        FxThreads.runAndWait(() -> assignments.addAll(batch));
+                        updateProgress(READ_SHARE + (1 - READ_SHARE) * to / total, 1);
+                    }
+                }
+                updateProgress(1, 1);
+                updateMessage("Loaded " + semester.getAssignments().size() + " assignments");
+                return semester;
+            }
+        };
+        Thread.ofVirtual().name("jscheduler-loader").start(task);
+        return task;
+    }
 
-        for (Assignment a : assignments) {
-            Course c = findCourseById(a.getCourseId());
-            if (c != null) {
-                a.setCourseName(c.getName());
-            } else {
-                a.setCourseName("[Deleted Course]");
+    /**
+     * Read the semester and fill in course names; touches nothing the UI can see.
+     */
+    private Semester readSemester(DoubleConsumer progress) {
+        StringPool.Stats before = StringPool.getInstance().stats();
+        Semester semester = storage.load(progress);
+        if (semester == null) {
+            semester = new Semester("Fall 2026");
+        }
+        if (semester.getLazyAssignments() == null) {
+            for (Assignment a : semester.getAssignments()) {
+                resolveCourseName(semester, a);
             }
         }
+        System.out.println("Loaded semester: " + StringPool.getInstance().stats().since(before));
+        return semester;
+    }
+
+    /**
+     * Make a loaded semester current and publish its courses. Eagerly loaded assignments
+     * are left for the caller to publish; a lazily decoded list becomes the table's
+     * storage in one step.
+     */
+    private void installSemester(Semester semester) {
+        currentSemester = semester;
+        courses.setAll(semester.getCourses());
+
+        LazyAssignmentList lazy = semester.getLazyAssignments();
+        if (lazy != null) {
+            // Rows are decoded as the table scrolls to them, so course names are filled in then
+            lazy.getSource().setMaterializeListener(a -> {
+                resolveCourseName(semester, a);
+                dueDates.decoded(a);
+                byCourse.decoded(a);
+            });
+            lazy.getSource().forEachMaterialized(a -> resolveCourseName(semester, a));
+            lazyAssignments = lazy.copy();
+        } else {
+            lazyAssignments = null;
+        }
+        dueDates.setLazyAssignments(lazyAssignments);
+        byCourse.setLazyAssignments(lazyAssignments);
+        assignments.setBacking(lazyAssignments != null ? lazyAssignments
+                : new ArrayList<>(semester.getAssignments().size()));
+    }
+
+    private static Set<Assignment> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    static void resolveCourseName(Semester semester, Assignment a) {
+        Course c = semester.findCourseById(a.getCourseId());
+        if (c != null) {
+            // The course's own instance, so a course's rows share one copy of its name
+            a.setCourseName(c.getName());
+        } else {
+            a.setCourseName("[Deleted Course]");
+        }
+    }
+
+    /**
+     * Queue a single change for the storage backend, falling back to a full snapshot when
+     * the backend cannot apply changes on their own or is due for compaction. Nothing is
+     * written on the calling thread.
+     * @param change captures the change in the backend's form
+     */
+    private void persist(Supplier<StorageBackend.Change> change) {
+        persist(List.of(change));
     }
 
+    /**
+     * Queue several changes as one write. When they would make compaction due, a snapshot
+     * is queued instead and none of them is captured.
+     */
+    private void persist(List<Supplier<StorageBackend.Change>> changes) {
+        if (!storage.isIncremental()) {
+            // Only snapshots reach this backend, so a queued one is replaced by a newer one
+            saveData();
+            return;
+        }
+        int pending = saver.getPendingChangeCount() + changes.size();
+        if (!saver.hasPendingSnapshot() && storage.isCompactionDue(pending)) {
+            saveData();
+            return;
+        }
+        List<StorageBackend.Change> captured = new ArrayList<>(changes.size());
+        for (Supplier<StorageBackend.Change> change : changes) {
+            captured.add(change.get());
+        }
+        saver.appendAll(captured);
+    }
+
+    /**
+     * Queue a full snapshot of the current semester for the background saver.
+     */
     public void saveData() {
-        currentSemester.setCourses(new ArrayList<>(courses));
-        currentSemester.setAssignments(new ArrayList<>(assignments));
-        persistenceService.save(currentSemester);
+        // Every mutator above updates currentSemester alongside the observable lists. The
+        // rows are copied too, as edits go on while the saver serializes on its own thread.
+        saver.saveSnapshot(currentSemester.snapshot());
+    }
+
+    /**
+     * Write all queued changes before returning.
+     */
+    public void flush() {
+        saver.flush();
+    }
+
+    /**
+     * Flush queued changes, stop the background saver and close the storage backend;
+     * called when the app exits.
+     */
+    public void shutdown() {
+        saver.shutdown();
+        storage.close();
     }
 
+    /**
+     * @return the name of the storage backend in use
+     */
+    public String getStorageName() {
+        return storage.getName();
+    }
+
+    /**
+     * @param listener told about save progress, on the saver's thread
+     */
+    public void setSaveStateListener(Consumer<WriteBehindSaver.State> listener) {
+        saver.setStateListener(listener);
+    }
+
+    /**
+     * @return the earliest-due assignment not yet submitted that is due today or later, or
+     *         null if there is none
+     */
     public Assignment getNextDueAssignment() {
-        LocalDate today = LocalDate.now();
-        return assignments.stream()
-                .filter(a -> a.getDueDate() != null && !a.getDueDate().isBefore(today))
-                .filter(a -> a.getStatus() != AssignmentStatus.SUBMITTED)
-                .min(Comparator.comparing(Assignment::getDueDate))
-                .orElse(null);
+        return dueDates.nextDue(LocalDate.now());
+    }
+
+    /**
+     * @return assignments not yet submitted whose due date has passed, earliest first
+     */
+    public List<Assignment> getOverdueAssignments() {
+        return dueDates.overdue(LocalDate.now());
+    }
+
+    /**
+     * Find the assignments due in a date range, from the due date index.
+     * @param from earliest due date, or null for no limit
+     * @param to latest due date, inclusive, or null for no limit
+     * @return dated assignments in the range, submitted or not, earliest first
+     */
+    public List<Assignment> getAssignmentsDueBetween(LocalDate from, LocalDate to) {
+        return dueDates.dueBetween(from, to);
     }
 }
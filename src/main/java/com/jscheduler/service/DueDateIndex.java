@@ -0,0 +1,305 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentObserver;
+import com.jscheduler.model.AssignmentSource;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.LazyAssignmentList;
+import com.jscheduler.util.ListChanges;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assignments ordered by due date, so the next one due, the overdue ones and those due in
+ * a range are found by a lookup instead of a scan. Rows not yet submitted and submitted
+ * rows are kept apart; undated rows are watched but not listed.
+ *
+ * <p>Built on the first query, then kept up to date by a listener on the assignment list
+ * and an observer of each row's due date and status. A list change touching a large share
+ * of the rows, such as a reload, drops it until the next query; see
+ * {@link ListChanges#isBulk}. When
+ * the list is decoded on demand, rows nobody has decoded are indexed by their position in
+ * the snapshot, read from the raw fields, and decoded only when returned; they cannot
+ * change until decoded, at which point {@link #decoded} moves them to the maps. Used on the
+ * FX thread only.
+ */
+final class DueDateIndex {
+    // Decoded rows passed over in the undecoded keys before they are dropped from them
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final ObservableList<Assignment> assignments;
+    private LazyAssignmentList lazy;
+
+    private final NavigableMap<LocalDate, Set<Assignment>> open = new TreeMap<>();
+    private final NavigableMap<LocalDate, Set<Assignment>> submitted = new TreeMap<>();
+    private final Set<Assignment> watched = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean built;
+
+    // Undecoded rows of a lazy list, as epoch day << 32 | snapshot ordinal, sorted
+    private AssignmentSource source;
+    private long[] undecodedOpen = new long[0];
+    private long[] undecodedSubmitted = new long[0];
+    private int skippedDecoded;
+
+    private final AssignmentObserver observer = (assignment, field, oldValue, newValue) -> {
+        switch (field) {
+            case DUE_DATE -> {
+                unlist(assignment, (LocalDate) oldValue, assignment.getStatus());
+                list(assignment, (LocalDate) newValue, assignment.getStatus());
+            }
+            case STATUS -> {
+                unlist(assignment, assignment.getDueDate(), (AssignmentStatus) oldValue);
+                list(assignment, assignment.getDueDate(), (AssignmentStatus) newValue);
+            }
+            default -> {
+            }
+        }
+    };
+
+    DueDateIndex(ObservableList<Assignment> assignments) {
+        this.assignments = assignments;
+        assignments.addListener(this::listChanged);
+    }
+
+    /**
+     * Use a lazily decoded list's raw fields for rows it has not decoded.
+     * @param lazy the list behind the assignments, or null if they are all decoded
+     */
+    void setLazyAssignments(LazyAssignmentList lazy) {
+        this.lazy = lazy;
+        clear();
+    }
+
+    /**
+     * Called as a row of the lazy list is decoded, so it is watched from then on.
+     */
+    void decoded(Assignment assignment) {
+        if (built) {
+            watch(assignment);
+        }
+    }
+
+    /**
+     * @return the earliest-due assignment not yet submitted that is due on or after the
+     *         date, or null if there is none
+     */
+    Assignment nextDue(LocalDate today) {
+        ensureBuilt();
+        Map.Entry<LocalDate, Set<Assignment>> entry = open.ceilingEntry(today);
+        LocalDate day = entry != null ? entry.getKey() : null;
+        int at = firstUndecoded(undecodedOpen, day(today));
+        if (at < undecodedOpen.length && (day == null || (int) (undecodedOpen[at] >> 32) < day(day))) {
+            return source.materialize((int) undecodedOpen[at]);
+        }
+        return entry != null ? entry.getValue().iterator().next() : null;
+    }
+
+    /**
+     * @return assignments not yet submitted that were due before the date, earliest first
+     */
+    List<Assignment> overdue(LocalDate today) {
+        ensureBuilt();
+        List<Assignment> result = new ArrayList<>();
+        open.headMap(today, false).values().forEach(result::addAll);
+        addUndecoded(result, undecodedOpen, Integer.MIN_VALUE, day(today) - 1);
+        result.sort(Comparator.comparing(Assignment::getDueDate));
+        return result;
+    }
+
+    /**
+     * @param from earliest due date, or null for no limit
+     * @param to latest due date, inclusive, or null for no limit
+     * @return dated assignments in the range, submitted or not, earliest first
+     */
+    List<Assignment> dueBetween(LocalDate from, LocalDate to) {
+        ensureBuilt();
+        List<Assignment> result = new ArrayList<>();
+        for (NavigableMap<LocalDate, Set<Assignment>> map : List.of(open, submitted)) {
+            NavigableMap<LocalDate, Set<Assignment>> range = map;
+            if (from != null) {
+                range = range.tailMap(from, true);
+            }
+            if (to != null) {
+                range = range.headMap(to, true);
+            }
+            range.values().forEach(result::addAll);
+        }
+        int fromDay = from != null ? day(from) : Integer.MIN_VALUE;
+        int toDay = to != null ? day(to) : Integer.MAX_VALUE - 1;
+        addUndecoded(result, undecodedOpen, fromDay, toDay);
+        addUndecoded(result, undecodedSubmitted, fromDay, toDay);
+        result.sort(Comparator.comparing(Assignment::getDueDate));
+        return result;
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            if (skippedDecoded > PRUNE_THRESHOLD) {
+                undecodedOpen = prune(undecodedOpen);
+                undecodedSubmitted = prune(undecodedSubmitted);
+                skippedDecoded = 0;
+            }
+            return;
+        }
+        built = true;
+        if (lazy == null) {
+            for (Assignment assignment : assignments) {
+                watch(assignment);
+            }
+            return;
+        }
+        source = lazy.getSource();
+        long[] openKeys = new long[lazy.size()];
+        long[] submittedKeys = new long[lazy.size()];
+        int openCount = 0;
+        int submittedCount = 0;
+        for (int i = 0; i < lazy.size(); i++) {
+            int ordinal = lazy.ordinalAt(i);
+            if (ordinal < 0 || lazy.isMaterialized(i)) {
+                watch(lazy.get(i));
+                continue;
+            }
+            LocalDate due = lazy.dueDateAt(i);
+            if (due == null) {
+                continue;
+            }
+            long key = (long) day(due) << 32 | ordinal;
+            if (lazy.statusAt(i) == AssignmentStatus.SUBMITTED) {
+                submittedKeys[submittedCount++] = key;
+            } else {
+                openKeys[openCount++] = key;
+            }
+        }
+        undecodedOpen = Arrays.copyOf(openKeys, openCount);
+        undecodedSubmitted = Arrays.copyOf(submittedKeys, submittedCount);
+        Arrays.sort(undecodedOpen);
+        Arrays.sort(undecodedSubmitted);
+    }
+
+    private void clear() {
+        for (Assignment assignment : watched) {
+            assignment.removeObserver(observer);
+        }
+        watched.clear();
+        open.clear();
+        submitted.clear();
+        source = null;
+        undecodedOpen = new long[0];
+        undecodedSubmitted = new long[0];
+        skippedDecoded = 0;
+        built = false;
+    }
+
+    private void listChanged(ListChangeListener.Change<? extends Assignment> change) {
+        if (!built) {
+            return;
+        }
+        if (ListChanges.isBulk(change, assignments.size())) {
+            clear();
+            return;
+        }
+        while (change.next()) {
+            if (change.wasPermutated() || change.wasUpdated()) {
+                // Rows are the same; edits arrive through the observer
+                continue;
+            }
+            for (Assignment assignment : change.getRemoved()) {
+                unwatch(assignment);
+            }
+            for (Assignment assignment : change.getAddedSubList()) {
+                watch(assignment);
+            }
+        }
+    }
+
+    private void watch(Assignment assignment) {
+        if (watched.add(assignment)) {
+            list(assignment, assignment.getDueDate(), assignment.getStatus());
+            assignment.addObserver(observer);
+        }
+    }
+
+    private void unwatch(Assignment assignment) {
+        if (watched.remove(assignment)) {
+            assignment.removeObserver(observer);
+            unlist(assignment, assignment.getDueDate(), assignment.getStatus());
+        }
+    }
+
+    private void list(Assignment assignment, LocalDate due, AssignmentStatus status) {
+        if (due != null) {
+            mapFor(status).computeIfAbsent(due, day -> new LinkedHashSet<>()).add(assignment);
+        }
+    }
+
+    private void unlist(Assignment assignment, LocalDate due, AssignmentStatus status) {
+        if (due == null) {
+            return;
+        }
+        NavigableMap<LocalDate, Set<Assignment>> map = mapFor(status);
+        Set<Assignment> bucket = map.get(due);
+        if (bucket != null && bucket.remove(assignment) && bucket.isEmpty()) {
+            map.remove(due);
+        }
+    }
+
+    private NavigableMap<LocalDate, Set<Assignment>> mapFor(AssignmentStatus status) {
+        return status == AssignmentStatus.SUBMITTED ? submitted : open;
+    }
+
+    /**
+     * @return the position of the first key on or after the day whose row is still undecoded
+     */
+    private int firstUndecoded(long[] keys, int day) {
+        int at = Arrays.binarySearch(keys, (long) day << 32);
+        at = at >= 0 ? at : -at - 1;
+        // Rows decoded since the build are in the maps instead, or were removed
+        while (at < keys.length && source.materialized((int) keys[at]) != null) {
+            at++;
+            skippedDecoded++;
+        }
+        return at;
+    }
+
+    private long[] prune(long[] keys) {
+        int kept = 0;
+        for (long key : keys) {
+            if (source.materialized((int) key) == null) {
+                keys[kept++] = key;
+            }
+        }
+        return kept < keys.length ? Arrays.copyOf(keys, kept) : keys;
+    }
+
+    private void addUndecoded(List<Assignment> result, long[] keys, int fromDay, int toDay) {
+        List<Integer> ordinals = new ArrayList<>();
+        for (int at = firstUndecoded(keys, fromDay); at < keys.length && (int) (keys[at] >> 32) <= toDay; at++) {
+            if (source.materialized((int) keys[at]) == null) {
+                ordinals.add((int) keys[at]);
+            } else {
+                skippedDecoded++;
+            }
+        }
+        // Decoded after the scan: decoding moves each row into the maps
+        for (int ordinal : ordinals) {
+            result.add(source.materialize(ordinal));
+        }
+    }
+
+    private static int day(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE + 1, Math.min(Integer.MAX_VALUE - 1, date.toEpochDay()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Edits collected by {@link DataService#batch}. Nothing changes while they are collected;
+ * they are applied in order once the batch is complete, with one change per observable
+ * list and one save.
+ */
+public final class EditBatch {
+
+    enum Kind {
+        ADD_COURSE,
+        UPDATE_COURSE,
+        DELETE_COURSE,
+        ADD_ASSIGNMENT,
+        UPDATE_ASSIGNMENT,
+        DELETE_ASSIGNMENT
+    }
+
+    /**
+     * One collected edit; exactly one of course and assignment is set.
+     */
+    record Edit(Kind kind, Course course, Assignment assignment) {
+    }
+
+    private final List<Edit> edits = new ArrayList<>();
+
+    EditBatch() {
+    }
+
+    public EditBatch addCourse(Course course) {
+        edits.add(new Edit(Kind.ADD_COURSE, course, null));
+        return this;
+    }
+
+    public EditBatch updateCourse(Course course) {
+        edits.add(new Edit(Kind.UPDATE_COURSE, course, null));
+        return this;
+    }
+
+    /**
+     * Delete a course along with its assignments, including any added in this batch.
+     */
+    public EditBatch deleteCourse(Course course) {
+        edits.add(new Edit(Kind.DELETE_COURSE, course, null));
+        return this;
+    }
+
+    public EditBatch addAssignment(Assignment assignment) {
+        edits.add(new Edit(Kind.ADD_ASSIGNMENT, null, assignment));
+        return this;
+    }
+
+    public EditBatch updateAssignment(Assignment assignment) {
+        edits.add(new Edit(Kind.UPDATE_ASSIGNMENT, null, assignment));
+        return this;
+    }
+
+    public EditBatch deleteAssignment(Assignment assignment) {
+        edits.add(new Edit(Kind.DELETE_ASSIGNMENT, null, assignment));
+        return this;
+    }
+
+    /**
+     * @return the number of edits collected
+     */
+    public int size() {
+        return edits.size();
+    }
+
+    List<Edit> edits() {
+        return Collections.unmodifiableList(edits);
+    }
+}
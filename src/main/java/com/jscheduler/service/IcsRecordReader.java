@@ -0,0 +1,183 @@
+package com.jscheduler.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the events and to-dos of an iCalendar (RFC 5545) file one at a time, unfolding
+ * continued lines as it goes, and hands each out under the field names the importer maps:
+ * SUMMARY is the title, DUE (or else DTSTART) the due date, the first of the CATEGORIES
+ * the course, COMMENT the notes. The X-JSCHEDULER- properties {@link CalendarExporter}
+ * writes are read back too. The calendar's X-WR-CALNAME stands in for a missing course.
+ * Alarms and other nested components are skipped. Only the current component is held, so
+ * calendars of any length read in constant memory.
+ */
+final class IcsRecordReader implements ImportRecordReader {
+    private final BufferedReader in;
+    private String pending;
+    private String calendarName;
+
+    IcsRecordReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public boolean next(Map<String, String> record) throws IOException {
+        String line;
+        while ((line = readUnfolded()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT") || line.equalsIgnoreCase("BEGIN:VTODO")) {
+                readComponent(line.substring("BEGIN:".length()), record);
+                return true;
+            }
+            if (startsWithIgnoreCase(line, "X-WR-CALNAME")) {
+                calendarName = unescape(value(line));
+            }
+        }
+        return false;
+    }
+
+    private void readComponent(String type, Map<String, String> record) throws IOException {
+        record.clear();
+        if (calendarName != null) {
+            record.put("course", calendarName);
+        }
+        boolean dueSet = false;
+        int nested = 0;
+        String line;
+        while ((line = readUnfolded()) != null) {
+            if (startsWithIgnoreCase(line, "BEGIN:")) {
+                nested++;
+                continue;
+            }
+            if (startsWithIgnoreCase(line, "END:")) {
+                if (nested == 0) {
+                    return;
+                }
+                nested--;
+                continue;
+            }
+            if (nested > 0) {
+                continue;
+            }
+            String name = name(line);
+            switch (name) {
+                case "SUMMARY" -> record.put("title", unescape(value(line)));
+                case "DESCRIPTION" -> record.put("description", unescape(value(line)));
+                case "COMMENT" -> record.put("notes", unescape(value(line)));
+                case "CATEGORIES" -> {
+                    String categories = value(line);
+                    int comma = firstUnescapedComma(categories);
+                    record.put("course", unescape(comma >= 0 ? categories.substring(0, comma) : categories));
+                }
+                case "DUE" -> {
+                    record.put("due", value(line));
+                    dueSet = true;
+                }
+                case "DTSTART" -> {
+                    if (!dueSet) {
+                        record.put("due", value(line));
+                    }
+                }
+                case "STATUS" -> record.put("status", status(value(line)));
+                case CalendarExporter.DEADLINE_PROPERTY -> record.put("deadline", value(line));
+                case CalendarExporter.STATUS_PROPERTY -> record.put("status", unescape(value(line)));
+                case CalendarExporter.KIND_PROPERTY -> record.put("kind", value(line));
+                default -> {
+                }
+            }
+        }
+        // The file ended inside the component; hand out what was read
+        System.err.println("Calendar ended inside a " + type);
+    }
+
+    /**
+     * @return the next logical line, with folded continuation lines joined to it
+     */
+    private String readUnfolded() throws IOException {
+        String line = pending != null ? pending : in.readLine();
+        pending = null;
+        if (line == null) {
+            return null;
+        }
+        String next = in.readLine();
+        if (next == null || next.isEmpty() || (next.charAt(0) != ' ' && next.charAt(0) != '\t')) {
+            pending = next;
+            return line;
+        }
+        StringBuilder unfolded = new StringBuilder(line);
+        while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            unfolded.append(next, 1, next.length());
+            next = in.readLine();
+        }
+        pending = next;
+        return unfolded.toString();
+    }
+
+    private static String name(String line) {
+        int end = 0;
+        while (end < line.length() && line.charAt(end) != ';' && line.charAt(end) != ':') {
+            end++;
+        }
+        return line.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the text after the colon ending the name and parameters; a quoted parameter
+     *         value may itself hold colons
+     */
+    private static String value(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return line.substring(i + 1);
+            }
+        }
+        return "";
+    }
+
+    private static String status(String value) {
+        return switch (value.strip().toUpperCase(Locale.ROOT)) {
+            case "COMPLETED" -> "Submitted";
+            case "IN-PROCESS" -> "In Progress";
+            default -> "Not Started";
+        };
+    }
+
+    private static int firstUnescapedComma(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                out.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean startsWithIgnoreCase(String line, String prefix) {
+        return line.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
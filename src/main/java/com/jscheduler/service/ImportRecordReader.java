@@ -0,0 +1,17 @@
+package com.jscheduler.service;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Hands out the records of an import file one at a time, as fields keyed by lower-case
+ * name; see {@link AssignmentImporter} for the names it maps.
+ */
+interface ImportRecordReader {
+
+    /**
+     * Replace the map's contents with the next record's fields.
+     * @return false, leaving the map as it was, once there are no more records
+     */
+    boolean next(Map<String, String> record) throws IOException;
+}
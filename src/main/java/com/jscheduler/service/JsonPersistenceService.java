@@ -1,31 +1,74 @@
 package com.jscheduler.service;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.jscheduler.model.Assignment;
-import com.jscheduler.model.AssignmentStatus;
 import com.jscheduler.model.Course;
 import com.jscheduler.model.Semester;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 
-public class JsonPersistenceService {
+/**
+ * Stores the semester in files under the app directory: a snapshot in JSON or binary form
+ * plus a journal of the changes made since it was written.
+ */
+public class JsonPersistenceService implements StorageBackend {
     private static final String DATA_FILE = "semester.json";
+    private static final String BINARY_FILE = "semester.bin";
+    private static final String JOURNAL_FILE = "semester.journal";
+    private static final boolean MAPPED_FILES_LOCKED = System.getProperty("os.name", "").startsWith("Windows");
+
+    private static final String OP_PUT_COURSE = "putCourse";
+    private static final String OP_REMOVE_COURSE = "removeCourse";
+    private static final String OP_PUT_ASSIGNMENT = "putAssignment";
+    private static final String OP_REMOVE_ASSIGNMENT = "removeAssignment";
+
+    private final Path jsonPath;
+    private final Path binaryPath;
     private final Path dataPath;
-    private final Gson gson;
+    private final boolean binarySnapshots;
+    private final boolean lazySnapshots;
+    private final boolean prettyPrint;
+    private final ChangeJournal journal;
+    private final int compactThreshold;
+    private volatile boolean journalFailed;
 
     public JsonPersistenceService() {
-        String userHome = System.getProperty("user.home");
-        Path appDir = Paths.get(userHome, ".jscheduler");
-        this.dataPath = appDir.resolve(DATA_FILE);
+        this(defaultAppDir());
+    }
+
+    /**
+     * Use the snapshot format named by storage.backend.
+     */
+    public JsonPersistenceService(Path appDir) {
+        this(appDir, StorageBackends.BINARY.equalsIgnoreCase(
+                StorageConfig.getInstance().getString(StorageBackends.KEY, StorageBackends.JSON)));
+    }
+
+    public JsonPersistenceService(Path appDir, boolean binarySnapshots) {
+        this.jsonPath = appDir.resolve(DATA_FILE);
+        this.binaryPath = appDir.resolve(BINARY_FILE);
 
         try {
             Files.createDirectories(appDir);
@@ -33,143 +76,416 @@ public class JsonPersistenceService {
             System.err.println("Could not create app directory: " + e.getMessage());
         }
 
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .setPrettyPrinting()
-                .create();
+        StorageConfig config = StorageConfig.getInstance();
+        this.binarySnapshots = binarySnapshots;
+        this.dataPath = binarySnapshots ? binaryPath : jsonPath;
+        this.lazySnapshots = binarySnapshots && config.getBoolean("storage.snapshot.lazy", false);
+        this.prettyPrint = config.getBoolean("storage.json.prettyPrint", true);
+        this.journal = config.getBoolean("storage.journal.enabled", true)
+                ? new ChangeJournal(appDir.resolve(JOURNAL_FILE))
+                : null;
+        this.compactThreshold = Math.max(1, config.getInt("storage.journal.compactThreshold", 1000));
+    }
+
+    static Path defaultAppDir() {
+        return Paths.get(System.getProperty("user.home"), ".jscheduler");
+    }
+
+    @Override
+    public String getName() {
+        return binarySnapshots ? StorageBackends.BINARY : StorageBackends.JSON;
     }
 
+    /**
+     * Load the newest snapshot, whichever format it is in, and replay the journal on top.
+     * The format is detected from the file's header rather than its name.
+     */
     public Semester load() {
-        if (!Files.exists(dataPath)) {
+        return load(fraction -> { });
+    }
+
+    /**
+     * Load as {@link #load()} does, reporting how much of the snapshot has been read.
+     * @param progress receives fractions from 0 to 1 on the loading thread
+     */
+    @Override
+    public Semester load(DoubleConsumer progress) {
+        Path snapshotPath = newestSnapshot();
+        if (snapshotPath == null) {
+            backupOrphanedJournal();
             return null;
         }
 
-        try (Reader reader = Files.newBufferedReader(dataPath)) {
-            SemesterDto dto = gson.fromJson(reader, SemesterDto.class);
-            return convertFromDto(dto);
+        Semester semester;
+        try {
+            semester = readSnapshot(snapshotPath, progress);
         } catch (IOException | JsonParseException e) {
             System.err.println("Could not load data: " + e.getMessage());
+            Path backupPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".backup");
             try {
-                Files.move(dataPath, dataPath.resolveSibling("semester.json.backup"));
-                System.err.println("Corrupted file backed up to semester.json.backup");
+                Files.move(snapshotPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
+                System.err.println("Corrupted file backed up to " + backupPath.getFileName());
             } catch (IOException ex) {
                 System.err.println("Could not backup corrupted file: " + ex.getMessage());
             }
+            backupOrphanedJournal();
             return null;
         }
+
+        replayJournal(semester);
+        return semester;
     }
 
-    public void save(Semester semester) {
-        SemesterDto dto = convertToDto(semester);
+    private Path newestSnapshot() {
+        boolean hasJson = Files.exists(jsonPath);
+        boolean hasBinary = Files.exists(binaryPath);
+        if (hasJson && hasBinary) {
+            try {
+                FileTime jsonTime = Files.getLastModifiedTime(jsonPath);
+                FileTime binaryTime = Files.getLastModifiedTime(binaryPath);
+                return binaryTime.compareTo(jsonTime) >= 0 ? binaryPath : jsonPath;
+            } catch (IOException e) {
+                return dataPath;
+            }
+        }
+        return hasBinary ? binaryPath : hasJson ? jsonPath : null;
+    }
 
-        try (Writer writer = Files.newBufferedWriter(dataPath)) {
-            gson.toJson(dto, writer);
+    private Semester readSnapshot(Path path, DoubleConsumer progress) throws IOException {
+        boolean binary;
+        long size = Files.size(path);
+        try (InputStream input = new BufferedInputStream(
+                new ProgressInputStream(Files.newInputStream(path), size, progress), 1 << 16)) {
+            input.mark(4);
+            byte[] header = input.readNBytes(4);
+            input.reset();
+            binary = BinarySnapshotCodec.matches(header);
+            if (binary && !lazySnapshots) {
+                return BinarySnapshotCodec.read(input);
+            }
+        }
+        if (binary) {
+            return mapSnapshot(path);
+        }
+        // Decodes strictly, like Files.newBufferedReader, but counts the bytes it reads
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                new ProgressInputStream(Files.newInputStream(path), size, progress),
+                StandardCharsets.UTF_8.newDecoder()), 1 << 16)) {
+            return SemesterJsonCodec.readSemester(new JsonReader(reader));
+        }
+    }
+
+    /**
+     * Reports the fraction of a file read so far, at most once per percent.
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final long size;
+        private final DoubleConsumer progress;
+        private long read;
+        private long nextReport;
+
+        ProgressInputStream(InputStream in, long size, DoubleConsumer progress) {
+            super(in);
+            this.size = Math.max(1, size);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(int n) {
+            read += n;
+            if (read >= nextReport) {
+                nextReport = read + size / 100;
+                progress.accept(Math.min(1.0, (double) read / size));
+            }
+        }
+    }
+
+    /**
+     * Open a binary snapshot whose assignments are decoded on first access.
+     */
+    private Semester mapSnapshot(Path path) throws IOException {
+        if (!MAPPED_FILES_LOCKED) {
+            return MappedSnapshot.open(path);
+        }
+        // Windows refuses to replace a file while it is mapped, which would fail every later
+        // save; map a private copy instead. Copying is sequential I/O, far cheaper than decoding.
+        Path copy = Files.createTempFile("jscheduler", ".mapped");
+        copy.toFile().deleteOnExit();
+        Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+        return MappedSnapshot.open(copy);
+    }
+
+    /**
+     * Write a full snapshot in the configured format and, once it is safely in place,
+     * drop the journal it supersedes.
+     * @return true if the snapshot was written
+     */
+    @Override
+    public boolean save(Semester semester) {
+        Path tempPath = dataPath.resolveSibling(dataPath.getFileName() + ".tmp");
+
+        try {
+            if (binarySnapshots) {
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16)) {
+                    BinarySnapshotCodec.write(output, semester);
+                }
+            } else {
+                writeJson(tempPath, semester, prettyPrint);
+            }
+            try {
+                Files.move(tempPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, dataPath, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             System.err.println("Could not save data: " + e.getMessage());
+            // Changes journaled since may rest on the snapshot that was not written
+            journalFailed = true;
+            return false;
+        }
+
+        if (journal != null) {
+            try {
+                journal.truncate();
+                journalFailed = false;
+            } catch (IOException e) {
+                System.err.println("Could not clear change journal: " + e.getMessage());
+            }
         }
+        return true;
     }
 
-    private static class SemesterDto {
-        String name;
-        List<CourseDto> courses;
-        List<AssignmentDto> assignments;
-    }
-
-    private static class CourseDto {
-        String id;
-        String name;
-        String description;
-        String professor;
-        String semester;
-    }
-
-    private static class AssignmentDto {
-        String id;
-        String courseId;
-        String title;
-        String description;
-        LocalDate dueDate;
-        LocalDate submissionDeadline;
-        String status;
-        String notes;
-    }
-
-    private SemesterDto convertToDto(Semester semester) {
-        SemesterDto dto = new SemesterDto();
-        dto.name = semester.getName();
-        dto.courses = new ArrayList<>();
-        dto.assignments = new ArrayList<>();
-
-        for (Course course : semester.getCourses()) {
-            CourseDto courseDto = new CourseDto();
-            courseDto.id = course.getId();
-            courseDto.name = course.getName();
-            courseDto.description = course.getDescription();
-            courseDto.professor = course.getProfessor();
-            courseDto.semester = course.getSemester();
-            dto.courses.add(courseDto);
-        }
-
-        for (Assignment assignment : semester.getAssignments()) {
-            AssignmentDto assignmentDto = new AssignmentDto();
-            assignmentDto.id = assignment.getId();
-            assignmentDto.courseId = assignment.getCourseId();
-            assignmentDto.title = assignment.getTitle();
-            assignmentDto.description = assignment.getDescription();
-            assignmentDto.dueDate = assignment.getDueDate();
-            assignmentDto.submissionDeadline = assignment.getSubmissionDeadline();
-            assignmentDto.status = assignment.getStatus() != null ? assignment.getStatus().getDisplayName() : "Not Started";
-            assignmentDto.notes = assignment.getNotes();
-            dto.assignments.add(assignmentDto);
-        }
-
-        return dto;
-    }
-
-    private Semester convertFromDto(SemesterDto dto) {
-        Semester semester = new Semester(dto.name);
-
-        if (dto.courses != null) {
-            for (CourseDto courseDto : dto.courses) {
-                Course course = new Course(
-                        courseDto.id,
-                        courseDto.name,
-                        courseDto.description,
-                        courseDto.professor,
-                        courseDto.semester
-                );
-                semester.addCourse(course);
+    /**
+     * Write the semester as indented JSON to an arbitrary file, independent of the
+     * snapshot format in use.
+     * @return true if the file was written
+     */
+    public boolean exportJson(Semester semester, Path target) {
+        try {
+            writeJson(target, semester, true);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not export data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeJson(Path path, Semester semester, boolean indent) throws IOException {
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(path))) {
+            if (indent) {
+                writer.setIndent("  ");
+            }
+            writer.setSerializeNulls(false);
+            SemesterJsonCodec.writeSemester(writer, semester);
+        }
+    }
+
+    /**
+     * @return true if changes go to the journal, false if every change rewrites the snapshot
+     */
+    @Override
+    public boolean isIncremental() {
+        return journal != null;
+    }
+
+    /**
+     * @param pendingRecords records encoded but not yet appended
+     * @return true when the next change should be written as a full snapshot instead of
+     *         a journal record: there is no snapshot yet, the journal has grown past the
+     *         compaction threshold, or the last append failed.
+     */
+    @Override
+    public boolean isCompactionDue(int pendingRecords) {
+        return journal == null
+                || journalFailed
+                || !Files.exists(dataPath)
+                || journal.getRecordCount() + pendingRecords >= compactThreshold;
+    }
+
+    /**
+     * A journal line, encoded when the change was made.
+     */
+    private record JournalRecord(String line) implements Change {
+    }
+
+    @Override
+    public Change courseSaved(Course course) {
+        return encodeRecord(OP_PUT_COURSE, out -> {
+            out.name("course");
+            SemesterJsonCodec.writeCourse(out, course);
+        });
+    }
+
+    @Override
+    public Change courseRemoved(String courseId) {
+        return encodeRecord(OP_REMOVE_COURSE, out -> out.name("id").value(courseId));
+    }
+
+    @Override
+    public Change assignmentSaved(Assignment assignment) {
+        return encodeRecord(OP_PUT_ASSIGNMENT, out -> {
+            out.name("assignment");
+            SemesterJsonCodec.writeAssignment(out, assignment);
+        });
+    }
+
+    @Override
+    public Change assignmentRemoved(String assignmentId) {
+        return encodeRecord(OP_REMOVE_ASSIGNMENT, out -> out.name("id").value(assignmentId));
+    }
+
+    private JournalRecord encodeRecord(String op, RecordBody body) {
+        StringWriter buffer = new StringWriter(128);
+        try (JsonWriter out = new JsonWriter(buffer)) {
+            out.setSerializeNulls(false);
+            out.beginObject();
+            out.name("op").value(op);
+            body.write(out);
+            out.endObject();
+        } catch (IOException e) {
+            // StringWriter does not throw; only a codec bug can get here.
+            throw new IllegalStateException("Could not encode journal record", e);
+        }
+        return new JournalRecord(buffer.toString());
+    }
+
+    private interface RecordBody {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    /**
+     * Append the changes to the journal, in order.
+     * @return true if they were written
+     */
+    @Override
+    public boolean apply(List<Change> changes) {
+        if (journal == null) {
+            return false;
+        }
+        List<String> records = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            records.add(((JournalRecord) change).line());
+        }
+        try {
+            journal.append(records);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not append to change journal: " + e.getMessage());
+            journalFailed = true;
+            return false;
+        }
+    }
+
+    private void replayJournal(Semester semester) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            int count = journal.replay(line -> {
+                try {
+                    applyRecord(semester, line);
+                } catch (IOException | JsonParseException | IllegalStateException e) {
+                    // A torn final line from a crash mid-append; everything before it is intact.
+                    System.err.println("Skipping unreadable journal record: " + e.getMessage());
+                }
+            });
+            if (count > 0) {
+                System.out.println("Replayed " + count + " journal records");
             }
+        } catch (IOException e) {
+            System.err.println("Could not replay change journal: " + e.getMessage());
+            journalFailed = true;
         }
+    }
 
-        if (dto.assignments != null) {
-            for (AssignmentDto assignmentDto : dto.assignments) {
-                Assignment assignment = new Assignment(
-                        assignmentDto.id,
-                        assignmentDto.courseId,
-                        assignmentDto.title,
-                        assignmentDto.description,
-                        assignmentDto.dueDate,
-                        assignmentDto.submissionDeadline,
-                        AssignmentStatus.fromString(assignmentDto.status),
-                        assignmentDto.notes
-                );
-                semester.addAssignment(assignment);
+    private void applyRecord(Semester semester, String line) throws IOException {
+        String op = null;
+        String id = null;
+        Course course = null;
+        Assignment assignment = null;
+
+        JsonReader in = new JsonReader(new StringReader(line));
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "op" -> op = SemesterJsonCodec.nextStringOrNull(in);
+                case "id" -> id = SemesterJsonCodec.nextStringOrNull(in);
+                case "course" -> course = SemesterJsonCodec.readCourse(in);
+                case "assignment" -> assignment = SemesterJsonCodec.readAssignment(in);
+                default -> in.skipValue();
             }
         }
+        in.endObject();
 
-        return semester;
+        if (op == null) {
+            return;
+        }
+        switch (op) {
+            case OP_PUT_COURSE -> putCourse(semester, course);
+            case OP_REMOVE_COURSE -> semester.removeCourse(id);
+            case OP_PUT_ASSIGNMENT -> putAssignment(semester, assignment);
+            case OP_REMOVE_ASSIGNMENT -> semester.removeAssignment(id);
+            default -> System.err.println("Unknown journal operation: " + op);
+        }
     }
 
-    private static class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
-        @Override
-        public JsonElement serialize(LocalDate date, Type type, JsonSerializationContext context) {
-            return date != null ? new JsonPrimitive(date.toString()) : null;
+    private void putCourse(Semester semester, Course course) {
+        Course existing = semester.findCourseById(course.getId());
+        if (existing == null) {
+            semester.addCourse(course);
+            return;
         }
+        existing.setName(course.getName());
+        existing.setDescription(course.getDescription());
+        existing.setProfessor(course.getProfessor());
+        existing.setSemester(course.getSemester());
+    }
 
-        @Override
-        public LocalDate deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
-            return json != null && !json.isJsonNull() ? LocalDate.parse(json.getAsString()) : null;
+    private void putAssignment(Semester semester, Assignment assignment) {
+        Assignment existing = semester.findAssignmentByKey(assignment.getKey());
+        if (existing == null) {
+            semester.addAssignment(assignment);
+            return;
+        }
+        existing.setCourseId(assignment.getCourseId());
+        existing.setTitle(assignment.getTitle());
+        existing.setDescription(assignment.getDescription());
+        existing.setDueDate(assignment.getDueDate());
+        existing.setSubmissionDeadline(assignment.getSubmissionDeadline());
+        existing.setStatus(assignment.getStatus());
+        existing.setNotes(assignment.getNotes());
+    }
+
+    /**
+     * Journal records only make sense on top of the snapshot they were written against.
+     */
+    private void backupOrphanedJournal() {
+        if (journal == null || !journal.exists()) {
+            return;
+        }
+        try {
+            Files.move(journal.getPath(), journal.getPath().resolveSibling(JOURNAL_FILE + ".backup"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Journal without a snapshot backed up to " + JOURNAL_FILE + ".backup");
+        } catch (IOException e) {
+            System.err.println("Could not backup orphaned journal: " + e.getMessage());
         }
     }
 }
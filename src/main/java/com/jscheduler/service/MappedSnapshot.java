@@ -0,0 +1,228 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentSource;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.LazyAssignmentList;
+import com.jscheduler.model.Semester;
+import com.jscheduler.util.StringPool;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * A binary snapshot read through a memory mapping. Opening it decodes the string table and
+ * the courses and records where each assignment record starts; assignments themselves are
+ * decoded on first access, and the single-field reads go straight to the mapped bytes.
+ */
+final class MappedSnapshot implements AssignmentSource {
+    // Offsets of the fixed-width fields within an assignment record.
+    private static final int DUE_DATE = 0;
+    private static final int STATUS = 8;
+    private static final int COURSE_ID = 9;
+    private static final int ID = 13;
+    // The fixed fields plus the length prefixes of the four inline strings.
+    private static final int MIN_RECORD_LENGTH = ID + 4 * 4;
+
+    private final MappedByteBuffer buffer;
+    private final String[] strings;
+    private final Semester semester;
+    private final int[] offsets;
+    private final Assignment[] decoded;
+    private Consumer<Assignment> materializeListener;
+
+    private MappedSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt() != BinarySnapshotCodec.MAGIC) {
+                throw new IOException("Not a binary semester snapshot");
+            }
+            int version = buffer.getShort() & 0xFFFF;
+            if (version > BinarySnapshotCodec.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            strings = new String[checkCount(buffer.getInt())];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = StringPool.getInstance().canonical(BinarySnapshotCodec.decodeString(buffer));
+            }
+            semester = new Semester(BinarySnapshotCodec.lookup(strings, buffer.getInt()));
+
+            int courseCount = checkCount(buffer.getInt());
+            for (int i = 0; i < courseCount; i++) {
+                semester.addCourse(BinarySnapshotCodec.decodeCourse(nextRecord(0), strings));
+            }
+
+            offsets = new int[checkCount(buffer.getInt())];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.position() + 4;
+                nextRecord(MIN_RECORD_LENGTH);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated snapshot record", e);
+        }
+        decoded = new Assignment[offsets.length];
+        semester.attachAssignments(new LazyAssignmentList(this));
+    }
+
+    /**
+     * Map a binary snapshot file.
+     * @return the semester, whose assignments decode from the mapping on access
+     * @throws IOException if the file cannot be mapped or its framing is damaged
+     */
+    static Semester open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)).semester;
+        }
+    }
+
+    private ByteBuffer nextRecord(int minLength) throws IOException {
+        int length = buffer.getInt();
+        if (length < minLength || length > buffer.remaining()) {
+            throw new IOException("Bad record length " + length);
+        }
+        ByteBuffer record = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return record;
+    }
+
+    private int checkCount(int count) throws IOException {
+        // Every entry takes at least four bytes, which bounds what a damaged count can allocate.
+        if (count < 0 || count > buffer.remaining() / 4) {
+            throw new IOException("Bad entry count " + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return offsets.length;
+    }
+
+    @Override
+    public synchronized Assignment materialize(int ordinal) {
+        Assignment assignment = decoded[ordinal];
+        if (assignment == null) {
+            try {
+                assignment = BinarySnapshotCodec.decodeAssignment(record(ordinal), strings);
+            } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalStateException("Corrupt snapshot record " + ordinal, e);
+            }
+            decoded[ordinal] = assignment;
+            if (materializeListener != null) {
+                materializeListener.accept(assignment);
+            }
+        }
+        return assignment;
+    }
+
+    @Override
+    public Assignment decodeDetached(int ordinal) {
+        try {
+            return BinarySnapshotCodec.decodeAssignment(record(ordinal), strings);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Corrupt snapshot record " + ordinal, e);
+        }
+    }
+
+    @Override
+    public synchronized Assignment materialized(int ordinal) {
+        return decoded[ordinal];
+    }
+
+    @Override
+    public synchronized void setMaterializeListener(Consumer<Assignment> listener) {
+        this.materializeListener = listener;
+    }
+
+    @Override
+    public synchronized void forEachMaterialized(Consumer<Assignment> action) {
+        for (Assignment assignment : decoded) {
+            if (assignment != null) {
+                action.accept(assignment);
+            }
+        }
+    }
+
+    @Override
+    public String idAt(int ordinal) {
+        return stringAt(ordinal, 0);
+    }
+
+    @Override
+    public String courseIdAt(int ordinal) {
+        int ref = buffer.getInt(offsets[ordinal] + COURSE_ID);
+        try {
+            return BinarySnapshotCodec.lookup(strings, ref);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt snapshot record " + ordinal, e);
+        }
+    }
+
+    @Override
+    public String titleAt(int ordinal) {
+        return stringAt(ordinal, 1);
+    }
+
+    @Override
+    public String descriptionAt(int ordinal) {
+        return stringAt(ordinal, 2);
+    }
+
+    @Override
+    public LocalDate dueDateAt(int ordinal) {
+        return BinarySnapshotCodec.fromEpochDay(buffer.getInt(offsets[ordinal] + DUE_DATE));
+    }
+
+    @Override
+    public AssignmentStatus statusAt(int ordinal) {
+        return BinarySnapshotCodec.toStatus(buffer.get(offsets[ordinal] + STATUS) & 0xFF);
+    }
+
+    /**
+     * Write an assignment record as it was read, length prefix included, with its course id
+     * pointing at the given entry of the string table being written alongside it.
+     */
+    void copyRecord(int ordinal, int courseIdRef, DataOutputStream out) throws IOException {
+        ByteBuffer record = record(ordinal);
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        ByteBuffer.wrap(bytes).putInt(COURSE_ID, courseIdRef);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read one of the inline strings that follow the fixed fields: id, title, description, notes.
+     * @param skip how many come before it
+     */
+    private String stringAt(int ordinal, int skip) {
+        ByteBuffer record = record(ordinal);
+        record.position(ID);
+        for (int i = 0; i < skip; i++) {
+            int length = record.getInt();
+            if (length > 0) {
+                record.position(record.position() + length);
+            }
+        }
+        return BinarySnapshotCodec.decodeString(record);
+    }
+
+    private ByteBuffer record(int ordinal) {
+        int offset = offsets[ordinal];
+        return buffer.slice(offset, buffer.getInt(offset - 4));
+    }
+}
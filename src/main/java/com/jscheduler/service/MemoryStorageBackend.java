@@ -0,0 +1,88 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Keeps the semester in memory only; nothing survives a restart. Useful as a baseline when
+ * comparing backends and for demos that should leave no files behind.
+ *
+ * <p>Edits need no work: the live model already holds them, so changes are accepted and
+ * dropped, and only explicit snapshots are kept.
+ */
+public class MemoryStorageBackend implements StorageBackend {
+
+    private enum NoOp implements Change {
+        INSTANCE
+    }
+
+    private volatile Semester saved;
+
+    public MemoryStorageBackend() {
+        this(null);
+    }
+
+    /**
+     * @param initial what {@link #load} returns until the first save, or null
+     */
+    public MemoryStorageBackend(Semester initial) {
+        this.saved = initial;
+    }
+
+    @Override
+    public String getName() {
+        return StorageBackends.MEMORY;
+    }
+
+    @Override
+    public Semester load(DoubleConsumer progress) {
+        progress.accept(1);
+        Semester semester = saved;
+        return semester != null ? semester.copy() : null;
+    }
+
+    @Override
+    public boolean save(Semester semester) {
+        saved = semester;
+        return true;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    public boolean isCompactionDue(int pendingChanges) {
+        return false;
+    }
+
+    @Override
+    public Change courseSaved(Course course) {
+        return NoOp.INSTANCE;
+    }
+
+    @Override
+    public Change courseRemoved(String courseId) {
+        return NoOp.INSTANCE;
+    }
+
+    @Override
+    public Change assignmentSaved(Assignment assignment) {
+        return NoOp.INSTANCE;
+    }
+
+    @Override
+    public Change assignmentRemoved(String assignmentId) {
+        return NoOp.INSTANCE;
+    }
+
+    @Override
+    public boolean apply(List<Change> changes) {
+        return true;
+    }
+}
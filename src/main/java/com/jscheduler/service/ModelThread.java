@@ -0,0 +1,10 @@
+package com.jscheduler.service;
+
+/**
+ * Runs work where the data service may be read and changed: the FX thread for the app, or
+ * the caller's own thread for a service it owns, as in benchmarks.
+ */
+interface ModelThread {
+
+    void run(Runnable action) throws InterruptedException;
+}
@@ -0,0 +1,188 @@
+package com.jscheduler.service;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+import com.jscheduler.util.StringPool;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streams semester JSON straight between the file and the model objects, one field at a
+ * time, so neither direction builds an intermediate tree or DTO copy of the data.
+ * The layout matches what the reflective Gson mapping used to produce.
+ * The database outbox reuses the course and assignment encodings for its queued rows.
+ */
+public final class SemesterJsonCodec {
+
+    private SemesterJsonCodec() {
+    }
+
+    static Semester readSemester(JsonReader in) throws IOException {
+        Semester semester = new Semester(null);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name" -> semester.setName(pooled(in));
+                    case "courses" -> {
+                        if (skipIfNull(in)) {
+                            break;
+                        }
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            semester.addCourse(readCourse(in));
+                        }
+                        in.endArray();
+                    }
+                    case "assignments" -> {
+                        if (skipIfNull(in)) {
+                            break;
+                        }
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            semester.addAssignment(readAssignment(in));
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | DateTimeParseException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+        return semester;
+    }
+
+    static void writeSemester(JsonWriter out, Semester semester) throws IOException {
+        out.beginObject();
+        out.name("name").value(semester.getName());
+        out.name("courses").beginArray();
+        for (Course course : semester.getCourses()) {
+            writeCourse(out, course);
+        }
+        out.endArray();
+        out.name("assignments").beginArray();
+        for (Assignment assignment : semester.getAssignments()) {
+            writeAssignment(out, assignment);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    public static Course readCourse(JsonReader in) throws IOException {
+        String id = null;
+        String name = null;
+        String description = null;
+        String professor = null;
+        String semester = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = nextStringOrNull(in);
+                case "name" -> name = pooled(in);
+                case "description" -> description = nextStringOrNull(in);
+                case "professor" -> professor = pooled(in);
+                case "semester" -> semester = pooled(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Course(id, name, description, professor, semester);
+    }
+
+    public static void writeCourse(JsonWriter out, Course course) throws IOException {
+        out.beginObject();
+        out.name("id").value(course.getId());
+        out.name("name").value(course.getName());
+        out.name("description").value(course.getDescription());
+        out.name("professor").value(course.getProfessor());
+        out.name("semester").value(course.getSemester());
+        out.endObject();
+    }
+
+    public static Assignment readAssignment(JsonReader in) throws IOException {
+        String id = null;
+        String courseId = null;
+        String title = null;
+        String description = null;
+        LocalDate dueDate = null;
+        LocalDate submissionDeadline = null;
+        String status = null;
+        String notes = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = nextStringOrNull(in);
+                case "courseId" -> courseId = pooled(in);
+                case "title" -> title = nextStringOrNull(in);
+                case "description" -> description = nextStringOrNull(in);
+                case "dueDate" -> dueDate = nextDateOrNull(in);
+                case "submissionDeadline" -> submissionDeadline = nextDateOrNull(in);
+                case "status" -> status = nextStringOrNull(in);
+                case "notes" -> notes = nextStringOrNull(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Assignment(id, courseId, title, description, dueDate, submissionDeadline,
+                AssignmentStatus.fromString(status), notes);
+    }
+
+    public static void writeAssignment(JsonWriter out, Assignment assignment) throws IOException {
+        out.beginObject();
+        out.name("id").value(assignment.getId());
+        out.name("courseId").value(assignment.getCourseId());
+        out.name("title").value(assignment.getTitle());
+        out.name("description").value(assignment.getDescription());
+        out.name("dueDate").value(formatDate(assignment.getDueDate()));
+        out.name("submissionDeadline").value(formatDate(assignment.getSubmissionDeadline()));
+        out.name("status").value(assignment.getStatus() != null
+                ? assignment.getStatus().getDisplayName()
+                : AssignmentStatus.NOT_STARTED.getDisplayName());
+        out.name("notes").value(assignment.getNotes());
+        out.endObject();
+    }
+
+    static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Read a value that often repeats from row to row, sharing one instance among equal ones.
+     */
+    private static String pooled(JsonReader in) throws IOException {
+        return StringPool.getInstance().canonical(nextStringOrNull(in));
+    }
+
+    private static LocalDate nextDateOrNull(JsonReader in) throws IOException {
+        String text = nextStringOrNull(in);
+        return text != null ? LocalDate.parse(text) : null;
+    }
+
+    private static String formatDate(LocalDate date) {
+        return date != null ? date.toString() : null;
+    }
+
+    private static boolean skipIfNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Where {@link DataService} keeps the semester. Implementations are chosen with the
+ * storage.backend setting; see {@link StorageBackends}.
+ *
+ * <p>Individual edits are captured as {@link Change}s on the caller's thread and applied
+ * later, in order, by the background saver. A backend that cannot apply changes on their
+ * own asks for full snapshots instead through {@link #isCompactionDue}.
+ */
+public interface StorageBackend {
+
+    /**
+     * One edit, captured when it was made. Only the backend that created it reads it.
+     */
+    interface Change {
+    }
+
+    /**
+     * @return the name the backend is selected by in storage.backend
+     */
+    String getName();
+
+    /**
+     * Read everything saved.
+     * @param progress receives fractions from 0 to 1 on the loading thread
+     * @return the saved semester, or null if nothing has been saved yet
+     */
+    Semester load(DoubleConsumer progress);
+
+    /**
+     * Replace everything saved with this semester.
+     * @param semester a copy the caller will not mutate again
+     * @return true if it was written
+     */
+    boolean save(Semester semester);
+
+    /**
+     * @return true if single changes can be applied without a full snapshot
+     */
+    boolean isIncremental();
+
+    /**
+     * @param pendingChanges changes captured but not yet applied
+     * @return true when the next change should be written as a full snapshot instead
+     */
+    boolean isCompactionDue(int pendingChanges);
+
+    Change courseSaved(Course course);
+
+    Change courseRemoved(String courseId);
+
+    Change assignmentSaved(Assignment assignment);
+
+    Change assignmentRemoved(String assignmentId);
+
+    /**
+     * Apply changes created by this backend, in order.
+     * @return true if they were written
+     */
+    boolean apply(List<Change> changes);
+
+    /**
+     * Release files or connections; called once everything has been written.
+     */
+    default void close() {
+    }
+}
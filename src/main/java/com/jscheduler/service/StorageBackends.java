@@ -0,0 +1,53 @@
+package com.jscheduler.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Creates the {@link StorageBackend} named by the storage.backend setting. Backends living
+ * outside this package, such as the JDBC one, are registered by name at startup.
+ */
+public final class StorageBackends {
+    static final String KEY = "storage.backend";
+
+    public static final String JSON = "json";
+    public static final String BINARY = "binary";
+    public static final String JDBC = "jdbc";
+    public static final String MEMORY = "memory";
+
+    private static final Map<String, Supplier<StorageBackend>> REGISTERED = new ConcurrentHashMap<>();
+
+    private StorageBackends() {
+    }
+
+    /**
+     * Make a backend available under a name, for backends this package cannot create itself.
+     * @param factory called each time the backend is configured and asked for
+     */
+    public static void register(String name, Supplier<StorageBackend> factory) {
+        REGISTERED.put(name.toLowerCase(), factory);
+    }
+
+    /**
+     * @return the configured backend, or the JSON file backend if the name is not recognized
+     */
+    public static StorageBackend fromConfig() {
+        String name = StorageConfig.getInstance().getString(KEY, JSON).trim().toLowerCase();
+        StorageBackend backend = switch (name) {
+            case JSON -> new JsonPersistenceService(JsonPersistenceService.defaultAppDir(), false);
+            case BINARY -> new JsonPersistenceService(JsonPersistenceService.defaultAppDir(), true);
+            case MEMORY -> new MemoryStorageBackend();
+            default -> {
+                Supplier<StorageBackend> factory = REGISTERED.get(name);
+                if (factory != null) {
+                    yield factory.get();
+                }
+                System.err.println("Unknown storage backend '" + name + "', using " + JSON);
+                yield new JsonPersistenceService(JsonPersistenceService.defaultAppDir(), false);
+            }
+        };
+        System.out.println("Using " + backend.getName() + " storage");
+        return backend;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jscheduler.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Singleton holding the local storage settings from storage.properties.
+ * A JVM system property with the same key takes precedence over the file.
+ */
+public class StorageConfig {
+    private static StorageConfig instance;
+    private final Properties props;
+
+    private StorageConfig() {
+        props = new Properties();
+        try (InputStream input = getClass().getClassLoader()
+                .getResourceAsStream("storage.properties")) {
+            if (input == null) {
+                System.err.println("Unable to find storage.properties, using defaults");
+                return;
+            }
+            props.load(input);
+        } catch (IOException ex) {
+            System.err.println("Error loading storage properties: " + ex.getMessage());
+        }
+    }
+
+    public static StorageConfig getInstance() {
+        if (instance == null) {
+            instance = new StorageConfig();
+        }
+        return instance;
+    }
+
+    public String getString(String key, String defaultValue) {
+        return System.getProperty(key, props.getProperty(key, defaultValue)).trim();
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getString(key, Boolean.toString(defaultValue)));
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, Integer.toString(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
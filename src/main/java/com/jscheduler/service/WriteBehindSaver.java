@@ -0,0 +1,213 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Semester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Persists changes off the calling thread. Changes and snapshot requests are queued, and a
+ * background virtual thread writes everything queued during one debounce window in a
+ * single pass. Changes are captured by the caller, so the saver never reads live model
+ * objects except through the snapshot copies it is handed. A snapshot that fails to write
+ * stays queued and is retried, backing off while the failures last.
+ */
+public final class WriteBehindSaver {
+
+    public enum State {
+        PENDING,
+        SAVING,
+        SAVED,
+        FAILED
+    }
+
+    private static final long MIN_RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 60_000;
+
+    private final StorageBackend storage;
+    private final long debounceMillis;
+
+    private final Object lock = new Object();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Semester pendingSnapshot;
+    private List<StorageBackend.Change> pendingChanges = new ArrayList<>();
+    private boolean dirty;
+    private boolean running = true;
+    // Zero while writes succeed; otherwise the wait before the next attempt
+    private long retryMillis;
+    private volatile Consumer<State> stateListener = state -> { };
+
+    public WriteBehindSaver(StorageBackend storage, long debounceMillis) {
+        this.storage = storage;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        Thread.ofVirtual().name("jscheduler-saver").start(this::runWorker);
+    }
+
+    /**
+     * @param listener notified on the saver's thread whenever the save state changes
+     */
+    public void setStateListener(Consumer<State> listener) {
+        this.stateListener = listener != null ? listener : state -> { };
+    }
+
+    /**
+     * Queue a change behind everything queued so far.
+     */
+    public void append(StorageBackend.Change change) {
+        synchronized (lock) {
+            pendingChanges.add(change);
+            markDirty();
+        }
+    }
+
+    /**
+     * Queue changes behind everything queued so far, in order, as one pending write.
+     */
+    public void appendAll(List<StorageBackend.Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            pendingChanges.addAll(changes);
+            markDirty();
+        }
+    }
+
+    /**
+     * Queue a full snapshot. It supersedes every change queued before it.
+     * @param snapshot a copy of the semester that the caller will not mutate again
+     */
+    public void saveSnapshot(Semester snapshot) {
+        synchronized (lock) {
+            pendingSnapshot = snapshot;
+            pendingChanges.clear();
+            markDirty();
+        }
+    }
+
+    public boolean hasPendingSnapshot() {
+        synchronized (lock) {
+            return pendingSnapshot != null;
+        }
+    }
+
+    /**
+     * @return number of changes queued but not yet written
+     */
+    public int getPendingChangeCount() {
+        synchronized (lock) {
+            return pendingChanges.size();
+        }
+    }
+
+    /**
+     * Write everything queued so far on the calling thread.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            writePending();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flush outstanding changes and stop the background thread.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        flush();
+    }
+
+    private void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            lock.notifyAll();
+            stateListener.accept(State.PENDING);
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (lock) {
+                while (running && !dirty) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+            }
+
+            long delay;
+            synchronized (lock) {
+                delay = Math.max(debounceMillis, retryMillis);
+            }
+            try {
+                // Let the rest of the burst arrive so it is written in one pass.
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    private void writePending() {
+        Semester snapshot;
+        List<StorageBackend.Change> changes;
+        synchronized (lock) {
+            if (!dirty) {
+                return;
+            }
+            snapshot = pendingSnapshot;
+            changes = pendingChanges;
+            pendingSnapshot = null;
+            pendingChanges = new ArrayList<>();
+            dirty = false;
+        }
+
+        stateListener.accept(State.SAVING);
+        boolean saved = true;
+        if (snapshot != null && !storage.save(snapshot)) {
+            // The changes rest on the snapshot, so they wait for it rather than being applied
+            requeue(snapshot, changes);
+            return;
+        }
+        if (!changes.isEmpty()) {
+            saved = storage.apply(changes);
+        }
+        synchronized (lock) {
+            retryMillis = 0;
+            // Changes queued while this batch was being written keep the state pending.
+            stateListener.accept(!saved ? State.FAILED : dirty ? State.PENDING : State.SAVED);
+        }
+    }
+
+    /**
+     * Put back a snapshot that could not be written, with the changes queued behind it, unless
+     * a newer snapshot has superseded them in the meantime, and schedule another attempt.
+     */
+    private void requeue(Semester snapshot, List<StorageBackend.Change> changes) {
+        synchronized (lock) {
+            if (pendingSnapshot == null) {
+                pendingSnapshot = snapshot;
+                changes.addAll(pendingChanges);
+                pendingChanges = changes;
+            }
+            dirty = true;
+            retryMillis = retryMillis == 0 ? MIN_RETRY_MILLIS : Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            lock.notifyAll();
+            stateListener.accept(State.FAILED);
+        }
+    }
+}
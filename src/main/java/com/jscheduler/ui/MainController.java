@@ -1,21 +1,47 @@
 package com.jscheduler.ui;
 
 import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
 import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+import com.jscheduler.service.AssignmentFilter;
+import com.jscheduler.service.AssignmentImporter;
+import com.jscheduler.service.CalendarExporter;
 import com.jscheduler.service.DataService;
+import com.jscheduler.service.StorageConfig;
+import com.jscheduler.service.WriteBehindSaver;
 import com.jscheduler.ui.dialog.AssignmentDialogController;
 import com.jscheduler.ui.dialog.CourseDialogController;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public class MainController {
+    // Typing is applied to the filter once it pauses this long
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
 
     @FXML
     private ComboBox<String> semesterCombo;
@@ -29,6 +55,12 @@ public class MainController {
     private DatePicker toDatePicker;
     @FXML
     private Button addAssignmentButton;
+    @FXML
+    private Button toolbarAddCourseButton;
+    @FXML
+    private Button importButton;
+    @FXML
+    private Button exportCalendarButton;
 
     @FXML
     private ListView<Course> courseListView;
@@ -56,6 +88,19 @@ public class MainController {
 
     private DataService dataService;
     private Assignment currentAssignment;
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private FilteredList<Assignment> filteredAssignments;
+    private SortedList<Assignment> sortedAssignments;
+    private AssignmentFilter activeFilter = AssignmentFilter.NONE;
+    private String activeCourseId;
+    // Keeps "Showing X of Y" current as rows are added, deleted and loaded
+    private final ListChangeListener<Assignment> countListener = change -> showFilterCount();
+    // The last file exported to, kept so exporting there again only re-encodes changes
+    private CalendarExporter calendarExport;
+    // Refreshed after every save when calendar.feed.path is set, otherwise null
+    private CalendarExporter calendarFeed;
+    private Task<CalendarExporter.Summary> feedTask;
+    private boolean feedStale;
 
     @FXML
     private TextField detailTitleField;
@@ -75,6 +120,8 @@ public class MainController {
     @FXML
     private Label statusLabel;
     @FXML
+    private ProgressBar loadProgressBar;
+    @FXML
     private Label nextDueLabel;
 
     @FXML
@@ -125,6 +172,7 @@ public class MainController {
 
         assignmentTable.setItems(dataService.getAssignments());
         assignmentTable.setPlaceholder(new Label("No assignments yet."));
+        setUpFilters();
 
         assignmentTable.getSelectionModel().selectedItemProperty().addListener(
             (obs, oldSelection, newSelection) -> populateDetailPanel(newSelection)
@@ -133,8 +181,153 @@ public class MainController {
         detailSaveButton.setDisable(true);
         detailRevertButton.setDisable(true);
 
-        statusLabel.setText("Saved");
-        updateNextDueLabel();
+        String feedPath = StorageConfig.getInstance().getString("calendar.feed.path", "").strip();
+        if (!feedPath.isEmpty()) {
+            calendarFeed = new CalendarExporter(Paths.get(feedPath.startsWith("~")
+                    ? System.getProperty("user.home") + feedPath.substring(1) : feedPath));
+        }
+
+        dataService.setSaveStateListener(state -> Platform.runLater(() -> showSaveState(state)));
+        startLoading();
+    }
+
+    /**
+     * Load data in the background while the window is already showing. Controls that
+     * change data stay disabled until everything has been read.
+     */
+    private void startLoading() {
+        Task<Semester> loadTask = dataService.loadAsync();
+
+        loadProgressBar.progressProperty().bind(loadTask.progressProperty());
+        loadProgressBar.visibleProperty().bind(loadTask.runningProperty());
+        loadProgressBar.managedProperty().bind(loadTask.runningProperty());
+        loadTask.messageProperty().addListener((obs, oldMessage, message) -> statusLabel.setText(message));
+        for (Control control : List.of(addAssignmentButton, toolbarAddCourseButton, importButton, exportCalendarButton,
+                addCourseButton, editCourseButton, deleteCourseButton,
+                searchField, statusFilterCombo, fromDatePicker, toDatePicker)) {
+            control.disableProperty().bind(loadTask.stateProperty().isNotEqualTo(Worker.State.SUCCEEDED));
+        }
+
+        loadTask.setOnSucceeded(e -> {
+            applyFilter();
+            updateNextDueLabel();
+            refreshCalendarFeed();
+        });
+        loadTask.setOnFailed(e -> {
+            statusLabel.setText("Load failed");
+            Throwable error = loadTask.getException();
+            error.printStackTrace();
+            showError("Load Failed", "Could not load saved data: " + error.getMessage());
+        });
+    }
+
+    /**
+     * Narrow the table as the search text, status and date range change, and to the course
+     * selected in the course list; Escape in the list clears the selection. Typing is applied
+     * once it pauses, or at once on Enter. When an assignment is edited, DataService reports
+     * that row as updated and the filtered and sorted views re-check it alone.
+     */
+    private void setUpFilters() {
+        dataService.getAssignments().addListener(countListener);
+        searchDelay.setOnFinished(e -> applyFilter());
+        searchField.textProperty().addListener((obs, oldText, text) -> searchDelay.playFromStart());
+        searchField.setOnAction(e -> {
+            searchDelay.stop();
+            applyFilter();
+        });
+        statusFilterCombo.valueProperty().addListener((obs, oldValue, value) -> applyFilter());
+        fromDatePicker.valueProperty().addListener((obs, oldDate, date) -> applyFilter());
+        toDatePicker.valueProperty().addListener((obs, oldDate, date) -> applyFilter());
+        courseListView.getSelectionModel().selectedItemProperty().addListener(
+                (obs, oldCourse, course) -> applyFilter());
+        courseListView.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                courseListView.getSelectionModel().clearSelection();
+            }
+        });
+    }
+
+    private void applyFilter() {
+        String status = statusFilterCombo.getValue();
+        AssignmentFilter filter = new AssignmentFilter(searchField.getText(),
+                status == null || "Any".equals(status) ? null : AssignmentStatus.fromString(status),
+                fromDatePicker.getValue(), toDatePicker.getValue());
+        Course course = courseListView.getSelectionModel().getSelectedItem();
+        String courseId = course != null ? course.getId() : null;
+        if (filter.equals(activeFilter) && Objects.equals(courseId, activeCourseId) && filteredAssignments != null) {
+            return;
+        }
+        boolean wasFiltered = !activeFilter.isEmpty() || activeCourseId != null;
+        activeFilter = filter;
+        activeCourseId = courseId;
+        // A selected course's rows come from its live view rather than a pass over every row
+        ObservableList<Assignment> source = courseId != null
+                ? dataService.getCourseAssignments(courseId) : dataService.getAssignments();
+
+        if (filter.isEmpty() && courseId == null && dataService.isDecodingOnDemand()) {
+            // A FilteredList reads every row; showing the list itself decodes only what is on screen
+            if (filteredAssignments != null) {
+                sortedAssignments.comparatorProperty().unbind();
+                filteredAssignments.removeListener(countListener);
+                filteredAssignments = null;
+                sortedAssignments = null;
+                assignmentTable.setItems(dataService.getAssignments());
+            }
+        } else {
+            Predicate<Assignment> predicate = toPredicate(filter);
+            if (filteredAssignments == null || filteredAssignments.getSource() != source) {
+                if (sortedAssignments != null) {
+                    sortedAssignments.comparatorProperty().unbind();
+                    filteredAssignments.removeListener(countListener);
+                }
+                filteredAssignments = new FilteredList<>(source, predicate);
+                filteredAssignments.addListener(countListener);
+                sortedAssignments = new SortedList<>(filteredAssignments);
+                sortedAssignments.comparatorProperty().bind(assignmentTable.comparatorProperty());
+                assignmentTable.setItems(sortedAssignments);
+            } else {
+                filteredAssignments.setPredicate(predicate);
+            }
+        }
+        if (!filter.isEmpty() || courseId != null) {
+            showFilterCount();
+        } else if (wasFiltered) {
+            statusLabel.setText("Showing all assignments");
+        }
+    }
+
+    private void showFilterCount() {
+        if (!activeFilter.isEmpty() || activeCourseId != null) {
+            statusLabel.setText("Showing " + assignmentTable.getItems().size() + " of "
+                    + dataService.getAssignments().size() + " assignments");
+        }
+    }
+
+    /**
+     * @return null for no filter; search words are looked up in the full-text index rather
+     *         than checked against each row's text
+     */
+    private Predicate<Assignment> toPredicate(AssignmentFilter filter) {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        if (filter.query() == null) {
+            return filter;
+        }
+        Predicate<Assignment> words = dataService.searchMatcher(filter.query());
+        AssignmentFilter rest = filter.withoutQuery();
+        return rest.isEmpty() ? words : rest.and(words);
+    }
+
+    private void showSaveState(WriteBehindSaver.State state) {
+        switch (state) {
+            case PENDING, SAVING -> statusLabel.setText("Saving\u2026");
+            case SAVED -> {
+                statusLabel.setText("Saved " + LocalTime.now().format(DateTimeFormatter.ofPattern("h:mm a")));
+                refreshCalendarFeed();
+            }
+            case FAILED -> statusLabel.setText("Save failed - changes are kept in memory");
+        }
     }
 
     @FXML
@@ -213,6 +406,99 @@ public class MainController {
         }
     }
 
+    /**
+     * Import courses and assignments from a CSV or iCalendar file in the background. Rows
+     * appear in the table batch by batch; the progress bar follows the file.
+     */
+    @FXML
+    private void handleImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Assignments");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("CSV or iCalendar files", "*.csv", "*.ics", "*.ical"));
+        File file = chooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Task<AssignmentImporter.Summary> importTask = new AssignmentImporter(dataService).importAsync(file.toPath());
+        importButton.disableProperty().unbind();
+        importButton.disableProperty().bind(importTask.runningProperty());
+        loadProgressBar.progressProperty().unbind();
+        loadProgressBar.visibleProperty().unbind();
+        loadProgressBar.managedProperty().unbind();
+        loadProgressBar.progressProperty().bind(importTask.progressProperty());
+        loadProgressBar.visibleProperty().bind(importTask.runningProperty());
+        loadProgressBar.managedProperty().bind(importTask.runningProperty());
+        importTask.messageProperty().addListener((obs, oldMessage, message) -> statusLabel.setText(message));
+
+        importTask.setOnSucceeded(e -> updateNextDueLabel());
+        importTask.setOnFailed(e -> {
+            statusLabel.setText("Import failed");
+            Throwable error = importTask.getException();
+            error.printStackTrace();
+            showError("Import Failed", "Could not import " + file.getName() + ": " + error.getMessage());
+            updateNextDueLabel();
+        });
+    }
+
+    /**
+     * Export due dates and submission deadlines to an iCalendar file in the background.
+     */
+    @FXML
+    private void handleExportCalendar() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Calendar");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("iCalendar files", "*.ics"));
+        chooser.setInitialFileName("assignments.ics");
+        File file = chooser.showSaveDialog(exportCalendarButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        if (calendarExport == null || !calendarExport.getFile().equals(file.toPath())) {
+            calendarExport = new CalendarExporter(file.toPath());
+        }
+
+        Task<CalendarExporter.Summary> exportTask = calendarExport.exportAsync(dataService);
+        exportCalendarButton.disableProperty().unbind();
+        exportCalendarButton.disableProperty().bind(exportTask.runningProperty());
+        statusLabel.setText("Exporting " + file.getName() + "\u2026");
+        exportTask.setOnSucceeded(e -> statusLabel.setText(exportTask.getValue() + " to " + file.getName()));
+        exportTask.setOnFailed(e -> {
+            statusLabel.setText("Export failed");
+            Throwable error = exportTask.getException();
+            error.printStackTrace();
+            showError("Export Failed", "Could not export to " + file.getName() + ": " + error.getMessage());
+        });
+    }
+
+    /**
+     * Bring the calendar feed up to date, if one is configured. A refresh asked for while
+     * one is running follows it, so the last edits are always included.
+     */
+    private void refreshCalendarFeed() {
+        if (calendarFeed == null) {
+            return;
+        }
+        if (feedTask != null && feedTask.isRunning()) {
+            feedStale = true;
+            return;
+        }
+        feedStale = false;
+        feedTask = calendarFeed.exportAsync(dataService);
+        feedTask.setOnSucceeded(e -> {
+            if (feedStale) {
+                refreshCalendarFeed();
+            }
+        });
+        feedTask.setOnFailed(e -> {
+            System.err.println("Could not refresh calendar feed: " + feedTask.getException().getMessage());
+            if (feedStale) {
+                refreshCalendarFeed();
+            }
+        });
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -269,7 +555,7 @@ public class MainController {
         currentAssignment.setTitle(detailTitleField.getText());
         currentAssignment.setDueDate(detailDueDatePicker.getValue());
         currentAssignment.setSubmissionDeadline(detailDeadlineDatePicker.getValue());
-        currentAssignment.setStatus(com.jscheduler.model.AssignmentStatus.fromString(detailStatusComboBox.getValue()));
+        currentAssignment.setStatus(AssignmentStatus.fromString(detailStatusComboBox.getValue()));
         currentAssignment.setNotes(detailNotesArea.getText());
 
         dataService.updateAssignment(currentAssignment);
@@ -0,0 +1,164 @@
+package com.jscheduler.util;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An observable list whose storage can be swapped for another list in one change, without
+ * reading the new list's elements. Lets the UI bind to a list before its data has loaded,
+ * and lets a lazily decoded list stand in as the storage.
+ */
+public final class BackedObservableList<E> extends ModifiableObservableListBase<E> {
+    private List<E> backing = new ArrayList<>();
+
+    /**
+     * Use the given list as storage from now on, reported as one replacement of the whole
+     * contents. Listeners only read the elements they need.
+     */
+    public void setBacking(List<E> list) {
+        List<E> old = backing;
+        backing = list;
+        beginChange();
+        if (!old.isEmpty()) {
+            nextRemove(0, old);
+        }
+        if (!list.isEmpty()) {
+            nextAdd(0, list.size());
+        }
+        endChange();
+    }
+
+    /**
+     * Run several edits as one change, so listeners hear about them once, after the last.
+     */
+    public void batch(Runnable edits) {
+        beginChange();
+        try {
+            edits.run();
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Tell listeners that the element at the index changed in place, so filtered and
+     * sorted views re-check that element alone.
+     */
+    public void fireUpdated(int index) {
+        beginChange();
+        nextUpdate(index);
+        endChange();
+    }
+
+    /**
+     * Remove every element in the set, compacting the storage in one pass and reporting one
+     * change; removeAll shifts the storage once per removed element. Reads every element,
+     * so it is meant for fully decoded storage.
+     * @return true if anything was removed
+     */
+    public boolean removeEach(Set<?> toRemove) {
+        if (toRemove.isEmpty()) {
+            return false;
+        }
+        beginChange();
+        int kept = 0;
+        List<E> run = null;
+        for (int i = 0; i < backing.size(); i++) {
+            E element = backing.get(i);
+            if (toRemove.contains(element)) {
+                if (run == null) {
+                    run = new ArrayList<>();
+                }
+                run.add(element);
+                continue;
+            }
+            if (run != null) {
+                nextRemove(kept, run);
+                run = null;
+            }
+            if (kept != i) {
+                backing.set(kept, element);
+            }
+            kept++;
+        }
+        if (run != null) {
+            nextRemove(kept, run);
+        }
+        boolean removed = kept < backing.size();
+        if (removed) {
+            backing.subList(kept, backing.size()).clear();
+            modCount++;
+        }
+        endChange();
+        return removed;
+    }
+
+    /**
+     * Let the storage remove elements in a pass of its own, which need not read them, and
+     * report the removal as one change.
+     * @param removal removes from the storage, telling each run of removed elements and the
+     *                index it started at once the runs before it were gone
+     */
+    public void removeRuns(Consumer<ObjIntConsumer<List<? extends E>>> removal) {
+        beginChange();
+        try {
+            boolean[] removed = new boolean[1];
+            removal.accept((run, from) -> {
+                nextRemove(from, run);
+                removed[0] = true;
+            });
+            if (removed[0]) {
+                modCount++;
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public E get(int index) {
+        return backing.get(index);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    // Searches go to the storage, which may answer without touching every element.
+
+    @Override
+    public int indexOf(Object o) {
+        return backing.indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return backing.lastIndexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return backing.contains(o);
+    }
+
+    @Override
+    protected void doAdd(int index, E element) {
+        backing.add(index, element);
+    }
+
+    @Override
+    protected E doSet(int index, E element) {
+        return backing.set(index, element);
+    }
+
+    @Override
+    protected E doRemove(int index) {
+        return backing.remove(index);
+    }
+}
@@ -0,0 +1,39 @@
+package com.jscheduler.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Helpers for background work that hands results to the JavaFX application thread.
+ */
+public final class FxThreads {
+
+    private FxThreads() {
+    }
+
+    /**
+     * Run an action on the FX thread and wait for it to finish. Background loaders publish
+     * batches this way so they never queue more than one batch ahead of the UI, leaving the
+     * FX thread free to lay out and paint between batches.
+     * @throws InterruptedException if the waiting thread is interrupted, e.g. by cancelling its Task
+     */
+    public static void runAndWait(Runnable action) throws InterruptedException {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<>(action, null);
+        Platform.runLater(task);
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.jscheduler.util;
+
+import javafx.collections.ListChangeListener;
+
+/**
+ * Sizing of list changes for the indexes kept alongside the assignment list.
+ */
+public final class ListChanges {
+    // Changes touching fewer rows than this are always applied row by row
+    private static final int BULK_MIN = 1000;
+    // ...and so are changes touching less than this share of the list
+    private static final int BULK_SHARE = 4;
+
+    private ListChanges() {
+    }
+
+    /**
+     * Tell whether a change touches enough rows, counting every part of it, that starting
+     * over is cheaper than applying it row by row; a reload replaces every row, while a
+     * batch of edits arrives as one change of many parts. Leaves the change reset.
+     * @param listSize the list's size after the change
+     */
+    public static boolean isBulk(ListChangeListener.Change<?> change, int listSize) {
+        long touched = 0;
+        while (change.next()) {
+            if (!change.wasPermutated() && !change.wasUpdated()) {
+                touched += change.getRemovedSize() + change.getAddedSize();
+            }
+        }
+        change.reset();
+        return touched > Math.max(BULK_MIN, listSize / BULK_SHARE);
+    }
+}
@@ -0,0 +1,116 @@
+package com.jscheduler.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to non-negative ints, laid out like {@link LongMap} with the
+ * values held unboxed. Not thread-safe.
+ */
+public final class LongIntMap {
+    public static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    // Each value plus one, so that zero marks an empty slot
+    private int[] values;
+    private int size;
+
+    /**
+     * @param expected entries the map should hold without growing
+     */
+    public LongIntMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expected) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the key's value, or {@link #MISSING}
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = LongMap.slot(key, mask); values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("LongIntMap values cannot be negative: " + value);
+        }
+        int mask = keys.length - 1;
+        int slot = LongMap.slot(key, mask);
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value + 1;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size > keys.length * 3 / 4) {
+            grow();
+        }
+    }
+
+    /**
+     * @return the value the key had, or {@link #MISSING}
+     */
+    public int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = LongMap.slot(key, mask);
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == 0) {
+            return MISSING;
+        }
+        int old = values[slot] - 1;
+        int free = slot;
+        for (int next = (slot + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+            int home = LongMap.slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        values[free] = 0;
+        size--;
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = LongMap.slot(oldKeys[i], mask);
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jscheduler.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one instance among equal strings read by the loaders: the values that repeat
+ * from row to row, such as assignments' course ids, course names, professors and semester
+ * names. Free text like titles and notes is mostly unique and is left out, as it would
+ * only evict these.
+ *
+ * <p>The pool is a fixed table of slots addressed by hash, so it never holds more than a
+ * few thousand strings however much is loaded, and a value it has lost to a colliding one
+ * is simply pooled again the next time it is seen. Loaders on different threads may use
+ * it at once; a race at worst keeps two equal instances.
+ */
+public final class StringPool {
+    private static final int SLOTS = 1 << 14;
+    // String object header and fields, plus the backing array's header
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    private static final StringPool INSTANCE = new StringPool();
+
+    private final String[] slots = new String[SLOTS];
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Counts of strings shared since the pool was created.
+     * @param shared strings replaced by an equal pooled instance
+     * @param savedBytes estimated heap those strings would have held, counting one byte
+     *                   per character as compact strings store Latin-1 text
+     */
+    public record Stats(long shared, long savedBytes) {
+        public Stats since(Stats earlier) {
+            return new Stats(shared - earlier.shared, savedBytes - earlier.savedBytes);
+        }
+
+        @Override
+        public String toString() {
+            return "shared " + shared + " repeated strings, saving about " + savedBytes / 1024 + " KB";
+        }
+    }
+
+    private StringPool() {
+    }
+
+    public static StringPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return an equal string already in the pool, or the given one, which takes its slot
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isEmpty()) {
+            // Mapped to the literal but left out of the stats, which count text saved
+            return "";
+        }
+        int hash = value.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+        String pooled = slots[slot];
+        if (pooled != null && pooled.equals(value)) {
+            if (pooled != value) {
+                count(value);
+            }
+            return pooled;
+        }
+        slots[slot] = value;
+        return value;
+    }
+
+    public Stats stats() {
+        return new Stats(shared.sum(), savedBytes.sum());
+    }
+
+    private void count(String value) {
+        shared.increment();
+        savedBytes.add((STRING_OVERHEAD + value.length() + 7) & ~7);
+    }
+}
@@ -0,0 +1,39 @@
+package com.jscheduler.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcBatchTest {
+
+    @Test
+    void uncheckedFailureRollsBackTheTransaction() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:batch_rollback")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE rows_seen (id INT PRIMARY KEY)");
+            }
+
+            assertThrows(IllegalStateException.class, () -> JdbcBatch.inTransaction(conn, () -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT INTO rows_seen VALUES (1)");
+                }
+                throw new IllegalStateException("binder failed");
+            }));
+
+            assertTrue(conn.getAutoCommit());
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM rows_seen")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.jscheduler.data;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxSyncTest {
+    private static final Timestamp BASE = Timestamp.valueOf("2026-01-01 00:00:00");
+    private static final Timestamp BEFORE_BASE = Timestamp.valueOf("2025-12-31 00:00:00");
+    private static final Timestamp AFTER_BASE = Timestamp.valueOf("2026-01-02 00:00:00");
+
+    private static DatabaseConnection db;
+
+    @TempDir
+    Path dir;
+
+    private Outbox outbox;
+    private OutboxSync sync;
+    private final List<Outbox.Entry> discarded = new ArrayList<>();
+
+    @BeforeAll
+    static void useEmbeddedDatabase() {
+        System.setProperty("db.engine", "h2");
+        System.setProperty("db.h2.path", "mem:outbox_sync;DB_CLOSE_DELAY=-1");
+        db = DatabaseConnection.getInstance();
+    }
+
+    @BeforeEach
+    void openOutbox() throws IOException, SQLException {
+        try (Connection conn = db.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM assignments");
+            stmt.execute("DELETE FROM courses");
+            stmt.execute("DELETE FROM deleted_rows");
+        }
+        outbox = new Outbox(dir.resolve("outbox.jsonl"), dir.resolve("outbox-conflicts.jsonl"));
+        outbox.addListener((written, dropped) -> {
+            synchronized (discarded) {
+                discarded.addAll(dropped);
+            }
+        });
+        sync = new OutboxSync(outbox, db, 10, 10);
+    }
+
+    @AfterEach
+    void stopSync() {
+        sync.stop();
+    }
+
+    @Test
+    void writeToRowChangedOnServerAfterItsBaseIsDiscarded() throws Exception {
+        Course course = course("c_00000001", "Local name");
+        insertCourse(course.getId(), "Server name", AFTER_BASE);
+
+        syncAll(List.of(Outbox.put(CourseRepository.TABLE, course, BASE)));
+
+        assertEquals("Server name", courseName(course.getId()));
+        assertEquals(List.of(course.getId()), discardedIds());
+        assertTrue(Files.readString(dir.resolve("outbox-conflicts.jsonl")).contains("row changed or deleted"));
+    }
+
+    @Test
+    void writeToRowDeletedOnServerAfterItsBaseIsDiscarded() throws Exception {
+        Course course = course("c_00000002", "Local name");
+        try (Connection conn = db.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO deleted_rows (table_name, row_id, deleted_at) VALUES (?, ?, ?)")) {
+            pstmt.setString(1, CourseRepository.TABLE);
+            pstmt.setString(2, course.getId());
+            pstmt.setTimestamp(3, AFTER_BASE);
+            pstmt.executeUpdate();
+        }
+
+        syncAll(List.of(Outbox.put(CourseRepository.TABLE, course, BASE)));
+
+        assertNull(courseName(course.getId()));
+        assertEquals(List.of(course.getId()), discardedIds());
+    }
+
+    @Test
+    void writeToRowUnchangedSinceItsBaseIsSent() throws Exception {
+        Course course = course("c_00000003", "Local name");
+        insertCourse(course.getId(), "Server name", BEFORE_BASE);
+
+        syncAll(List.of(Outbox.put(CourseRepository.TABLE, course, BASE)));
+
+        assertEquals("Local name", courseName(course.getId()));
+        assertEquals(List.of(), discardedIds());
+    }
+
+    @Test
+    void refusedWriteIsSetAsideAndTheRestOfItsBatchIsSent() throws Exception {
+        Course course = course("c_00000004", "Kept");
+        // No such course, so the foreign key refuses it with an integrity violation
+        Assignment orphan = new Assignment("a_00000001", "c_000000ff", "Orphan", "",
+                LocalDate.of(2026, 10, 1), null, AssignmentStatus.NOT_STARTED, "");
+
+        syncAll(List.of(
+                Outbox.put(CourseRepository.TABLE, course, null),
+                Outbox.put(AssignmentRepository.TABLE, orphan, null)));
+
+        assertEquals("Kept", courseName(course.getId()));
+        assertEquals(List.of(orphan.getId()), discardedIds());
+        assertTrue(Files.readString(dir.resolve("outbox-conflicts.jsonl")).contains("refused by the database"));
+    }
+
+    private void syncAll(List<Outbox.Entry> entries) throws InterruptedException {
+        assertTrue(outbox.add(entries));
+        sync.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outbox.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, outbox.size());
+    }
+
+    private List<String> discardedIds() {
+        synchronized (discarded) {
+            return discarded.stream().map(Outbox.Entry::id).toList();
+        }
+    }
+
+    private static Course course(String id, String name) {
+        return new Course(id, name, "", "Noether", "Fall 2026");
+    }
+
+    private static void insertCourse(String id, String name, Timestamp updatedAt) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO courses (id, name, semester, updated_at) VALUES (?, ?, 'Fall 2026', ?)")) {
+            pstmt.setString(1, id);
+            pstmt.setString(2, name);
+            pstmt.setTimestamp(3, updatedAt);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static String courseName(String id) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT name FROM courses WHERE id = ?")) {
+            pstmt.setString(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.jscheduler.service;
+
+import com.jscheduler.model.Assignment;
+import com.jscheduler.model.AssignmentStatus;
+import com.jscheduler.model.Course;
+import com.jscheduler.model.Semester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataServiceSaveTest {
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("storage.journal.enabled");
+        System.clearProperty("storage.save.debounceMillis");
+    }
+
+    @Test
+    void editsInOneDebounceWindowAllReachASnapshotOnlyBackend() {
+        System.setProperty("storage.journal.enabled", "false");
+        // Long enough that only the flush below writes
+        System.setProperty("storage.save.debounceMillis", "60000");
+        DataService service = new DataService(new JsonPersistenceService(dir, false));
+        Course course = new Course("Algebra", "", "Noether", "Fall 2026");
+        service.addCourse(course);
+        service.addAssignment(assignment(course, "First"));
+        service.addAssignment(assignment(course, "Second"));
+        service.flush();
+        service.shutdown();
+
+        Semester saved = new JsonPersistenceService(dir, false).load();
+        assertEquals(1, saved.getCourses().size());
+        assertEquals(List.of("First", "Second"), saved.getAssignments().stream().map(Assignment::getTitle).toList());
+    }
+
+    @Test
+    void snapshotKeepsTheFieldsItWasTakenWith() {
+        Semester semester = new Semester("Fall 2026");
+        Course course = new Course("Algebra", "", "Noether", "Fall 2026");
+        semester.addCourse(course);
+        Assignment assignment = assignment(course, "First");
+        semester.addAssignment(assignment);
+
+        Semester snapshot = semester.snapshot();
+        course.setName("Geometry");
+        assignment.setTitle("Changed");
+
+        assertEquals("Algebra", snapshot.getCourses().get(0).getName());
+        assertEquals("First", snapshot.getAssignments().get(0).getTitle());
+        assertEquals(assignment.getId(), snapshot.getAssignments().get(0).getId());
+    }
+
+    private static Assignment assignment(Course course, String title) {
+        return new Assignment(course.getId(), title, "", LocalDate.of(2026, 10, 1), null,
+                AssignmentStatus.NOT_STARTED, "");
+    }
+}